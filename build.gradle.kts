@@ -9,4 +9,5 @@ dependencies {
     implementation(libs.jackson.module.parameter.names)
 
     testImplementation(libs.junit.jupiter)
+    testRuntimeOnly(libs.junit.platform.launcher)
 }
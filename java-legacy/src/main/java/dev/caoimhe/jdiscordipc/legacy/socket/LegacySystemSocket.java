@@ -5,6 +5,7 @@ import org.jspecify.annotations.Nullable;
 import org.newsclub.net.unix.AFUNIXSocket;
 import org.newsclub.net.unix.AFUNIXSocketAddress;
 
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
@@ -15,8 +16,14 @@ import java.nio.file.Path;
  * A {@link SystemSocket} which communicates with the Discord client over an {@link AFUNIXSocket}.
  */
 public class LegacySystemSocket implements SystemSocket {
-    private final AFUNIXSocket socket;
+    /**
+     * The size of the buffer that writes are collected in before being flushed to the socket.
+     */
+    private static final int OUTPUT_BUFFER_SIZE_BYTES = 8192;
+
+    private AFUNIXSocket socket;
     private @Nullable DataInputStream dataInputStream;
+    private @Nullable BufferedOutputStream outputStream;
 
     /**
      * Initializes a new {@link LegacySystemSocket} instance.
@@ -29,21 +36,28 @@ public class LegacySystemSocket implements SystemSocket {
 
     @Override
     public void connect(final Path domainSocketPath) throws IOException {
+        // A socket can't be connected again once it has been closed, reconnecting needs a new one.
+        if (this.socket.isClosed()) {
+            this.socket = AFUNIXSocket.newInstance();
+        }
+
         final AFUNIXSocketAddress socketAddress = AFUNIXSocketAddress.of(domainSocketPath);
         this.socket.connect(socketAddress);
         this.dataInputStream = new DataInputStream(this.socket.getInputStream());
+        this.outputStream = new BufferedOutputStream(this.socket.getOutputStream(), OUTPUT_BUFFER_SIZE_BYTES);
     }
 
     @Override
     public boolean readFully(final ByteBuffer byteBuffer) throws IOException {
         // If the socket is not currently connected, we cannot read anything.
-        if (!this.socket.isConnected() || this.dataInputStream == null) {
+        if (!this.isConnected() || this.dataInputStream == null) {
             return false;
         }
 
         try {
             // We do not need to close this DataInputStream, it's just a helpful wrapper around an existing input stream.
-            this.dataInputStream.readFully(byteBuffer.array());
+            final int offset = byteBuffer.arrayOffset() + byteBuffer.position();
+            this.dataInputStream.readFully(byteBuffer.array(), offset, byteBuffer.remaining());
         } catch (final EOFException e) {
             return false;
         }
@@ -51,18 +65,58 @@ public class LegacySystemSocket implements SystemSocket {
         return true;
     }
 
+    @Override
+    public int read(final ByteBuffer byteBuffer) throws IOException {
+        if (!this.isConnected() || this.dataInputStream == null) {
+            return -1;
+        }
+
+        final int offset = byteBuffer.arrayOffset() + byteBuffer.position();
+        final int read = this.dataInputStream.read(byteBuffer.array(), offset, byteBuffer.remaining());
+        if (read > 0) {
+            byteBuffer.position(byteBuffer.position() + read);
+        }
+
+        return read;
+    }
+
     @Override
     public void write(final ByteBuffer byteBuffer) throws IOException {
-        if (!this.socket.isConnected()) {
+        this.write(new ByteBuffer[]{byteBuffer});
+    }
+
+    @Override
+    public void write(final ByteBuffer... byteBuffers) throws IOException {
+        if (!this.isConnected() || this.outputStream == null) {
             return;
         }
 
-        byteBuffer.position(0);
-        this.socket.getOutputStream().write(byteBuffer.array());
+        // AFUNIXSocket does not support gathering writes. Instead, the buffers are collected within a BufferedOutputStream
+        // and flushed once, which results in a single write to the socket if they fit within its buffer.
+        for (final ByteBuffer byteBuffer : byteBuffers) {
+            final int offset = byteBuffer.arrayOffset() + byteBuffer.position();
+            this.outputStream.write(byteBuffer.array(), offset, byteBuffer.remaining());
+            byteBuffer.position(byteBuffer.limit());
+        }
+
+        this.outputStream.flush();
+    }
+
+    @Override
+    public boolean supportsPartialReads() {
+        return true;
     }
 
     @Override
     public boolean isConnected() {
-        return this.socket.isConnected();
+        // A socket reports that it is connected even after being closed, as long as it was connected at some point.
+        return this.socket.isConnected() && !this.socket.isClosed();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.dataInputStream = null;
+        this.outputStream = null;
+        this.socket.close();
     }
 }
@@ -13,7 +13,7 @@ import java.nio.file.Path;
  * A {@link SystemSocket} implementation that communicates with the Discord client over a {@link SocketChannel}.
  */
 public class ModernSystemSocket implements SystemSocket {
-    private final SocketChannel socketChannel;
+    private SocketChannel socketChannel;
 
     public ModernSystemSocket() {
         try {
@@ -26,12 +26,18 @@ public class ModernSystemSocket implements SystemSocket {
 
     @Override
     public void connect(final Path domainSocketPath) throws IOException {
+        // A channel can't be connected again once it has been closed, reconnecting needs a new one.
+        if (!this.socketChannel.isOpen()) {
+            this.socketChannel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        }
+
         final UnixDomainSocketAddress unixDomainSocketAddress = UnixDomainSocketAddress.of(domainSocketPath);
         this.socketChannel.connect(unixDomainSocketAddress);
     }
 
     @Override
     public boolean readFully(final ByteBuffer byteBuffer) throws IOException {
+        final int position = byteBuffer.position();
         while (byteBuffer.hasRemaining()) {
             if (!this.socketChannel.isConnected()) {
                 return false;
@@ -42,22 +48,66 @@ public class ModernSystemSocket implements SystemSocket {
             }
         }
 
-        byteBuffer.position(0);
+        byteBuffer.position(position);
         return true;
     }
 
+    @Override
+    public int read(final ByteBuffer byteBuffer) throws IOException {
+        if (!this.socketChannel.isConnected()) {
+            return -1;
+        }
+
+        return this.socketChannel.read(byteBuffer);
+    }
+
     @Override
     public void write(final ByteBuffer byteBuffer) throws IOException {
         if (!this.socketChannel.isConnected()) {
             return;
         }
 
-        byteBuffer.position(0);
-        this.socketChannel.write(byteBuffer);
+        while (byteBuffer.hasRemaining()) {
+            this.socketChannel.write(byteBuffer);
+        }
+    }
+
+    @Override
+    public void write(final ByteBuffer... byteBuffers) throws IOException {
+        if (!this.socketChannel.isConnected()) {
+            return;
+        }
+
+        // A gathering write hands all of the buffers to the kernel at once. It may not write everything in one go, so we
+        // need to keep going until every buffer has been written.
+        long remaining = 0;
+        for (final ByteBuffer byteBuffer : byteBuffers) {
+            remaining += byteBuffer.remaining();
+        }
+
+        while (remaining > 0) {
+            remaining -= this.socketChannel.write(byteBuffers);
+        }
+    }
+
+    @Override
+    public boolean supportsDirectBuffers() {
+        // SocketChannel can read into and write from direct buffers without an intermediate copy.
+        return true;
+    }
+
+    @Override
+    public boolean supportsPartialReads() {
+        return true;
     }
 
     @Override
     public boolean isConnected() {
         return this.socketChannel.isConnected();
     }
+
+    @Override
+    public void close() throws IOException {
+        this.socketChannel.close();
+    }
 }
@@ -0,0 +1,41 @@
+package dev.caoimhe.jdiscordipc;
+
+/**
+ * Determines what happens when a packet is sent while the outgoing packet queue is full, for example because the
+ * Discord client has stopped reading from the socket.
+ * <p>
+ * This only applies to frame packets (e.g. activity updates). Control packets such as handshakes and pongs are never
+ * dropped, and sending one never blocks.
+ *
+ * @see dev.caoimhe.jdiscordipc.builder.JDiscordIPCBuilder#backpressurePolicy(BackpressurePolicy)
+ * @see dev.caoimhe.jdiscordipc.packet.PacketWriter
+ */
+public enum BackpressurePolicy {
+    /**
+     * The thread sending the packet blocks until there is space in the queue.
+     * <p>
+     * The library's own threads never block: a packet they send while the queue is full (e.g. a delayed activity
+     * update) is dropped like {@link #DROP_NEWEST}. A packet is also dropped if the sending thread is interrupted while
+     * waiting.
+     */
+    BLOCK,
+
+    /**
+     * The oldest packet in the queue is dropped to make space for the new packet.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The new packet is dropped.
+     */
+    DROP_NEWEST,
+
+    /**
+     * If a packet with the same replacement key (see {@link dev.caoimhe.jdiscordipc.packet.Packet#replacementKey()}) is
+     * already queued, it is replaced by the new packet, whether the queue is full or not. This keeps only the latest
+     * activity update in the queue, for example.
+     * <p>
+     * If the queue is full and there is nothing to replace, the new packet is dropped like {@link #DROP_NEWEST}.
+     */
+    REPLACE_BY_KEY
+}
@@ -3,6 +3,7 @@ package dev.caoimhe.jdiscordipc;
 import org.jspecify.annotations.Nullable;
 
 import java.nio.file.Path;
+import java.time.Duration;
 
 /**
  * Extra options that can be used to control the behavior of {@link JDiscordIPC#connect()}.
@@ -10,12 +11,81 @@ import java.nio.file.Path;
  * @see ConnectOptions.Builder
  */
 public class ConnectOptions {
+    /**
+     * The default amount of time that {@link JDiscordIPC#connectAsync(ConnectOptions)} waits for the connection to be
+     * established.
+     */
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * The default amount of time that {@link JDiscordIPC#connectAsync(ConnectOptions)} waits for the Discord client to
+     * accept the handshake, once the connection has been established.
+     */
+    public static final Duration DEFAULT_HANDSHAKE_TIMEOUT = Duration.ofSeconds(10);
+
     private final @Nullable Integer socketIndex;
     private final @Nullable Path temporaryDirectory;
+    private final SocketDiscovery socketDiscovery;
+    private final boolean persistSocketHint;
+    private final @Nullable Duration raceDeadline;
+    private final Duration connectTimeout;
+    private final Duration handshakeTimeout;
 
     public ConnectOptions(final @Nullable Integer socketIndex, final @Nullable Path temporaryDirectory) {
+        this(socketIndex, temporaryDirectory, SocketDiscovery.POLL);
+    }
+
+    public ConnectOptions(
+        final @Nullable Integer socketIndex,
+        final @Nullable Path temporaryDirectory,
+        final SocketDiscovery socketDiscovery
+    ) {
+        this(socketIndex, temporaryDirectory, socketDiscovery, false);
+    }
+
+    public ConnectOptions(
+        final @Nullable Integer socketIndex,
+        final @Nullable Path temporaryDirectory,
+        final SocketDiscovery socketDiscovery,
+        final boolean persistSocketHint
+    ) {
+        this(socketIndex, temporaryDirectory, socketDiscovery, persistSocketHint, null);
+    }
+
+    public ConnectOptions(
+        final @Nullable Integer socketIndex,
+        final @Nullable Path temporaryDirectory,
+        final SocketDiscovery socketDiscovery,
+        final boolean persistSocketHint,
+        final @Nullable Duration raceDeadline
+    ) {
+        this(
+            socketIndex,
+            temporaryDirectory,
+            socketDiscovery,
+            persistSocketHint,
+            raceDeadline,
+            DEFAULT_CONNECT_TIMEOUT,
+            DEFAULT_HANDSHAKE_TIMEOUT
+        );
+    }
+
+    public ConnectOptions(
+        final @Nullable Integer socketIndex,
+        final @Nullable Path temporaryDirectory,
+        final SocketDiscovery socketDiscovery,
+        final boolean persistSocketHint,
+        final @Nullable Duration raceDeadline,
+        final Duration connectTimeout,
+        final Duration handshakeTimeout
+    ) {
         this.socketIndex = socketIndex;
         this.temporaryDirectory = temporaryDirectory;
+        this.socketDiscovery = socketDiscovery;
+        this.persistSocketHint = persistSocketHint;
+        this.raceDeadline = raceDeadline;
+        this.connectTimeout = connectTimeout;
+        this.handshakeTimeout = handshakeTimeout;
     }
 
     /**
@@ -34,6 +104,59 @@ public class ConnectOptions {
         return this.temporaryDirectory;
     }
 
+    /**
+     * How the Discord IPC socket is waited for while reconnecting. Defaults to {@link SocketDiscovery#POLL}.
+     */
+    public SocketDiscovery socketDiscovery() {
+        return this.socketDiscovery;
+    }
+
+    /**
+     * Whether the path of the last Discord IPC socket that was connected to should be written to a file, so that the
+     * next run of the application can try it before looking for the socket. Defaults to false.
+     * <p>
+     * The path is always remembered for as long as the {@link JDiscordIPC} instance exists, this only controls whether
+     * it outlives the JVM. The file is written to the temporary directory that the socket is looked for in (on Windows,
+     * the {@code java.io.tmpdir} directory), and is only rewritten when the socket moves. Its name includes the user's
+     * name and the client ID, so that applications and users sharing the directory don't share a hint.
+     * <p>
+     * A hint is only used if it is one of the paths that the socket would be looked for at with these options.
+     */
+    public boolean persistSocketHint() {
+        return this.persistSocketHint;
+    }
+
+    /**
+     * If non-null, every Discord IPC socket that exists is connected to at once, and the first whose Discord client is
+     * ready within this deadline is used. Defaults to null, which uses the first socket that exists.
+     * <p>
+     * This is useful when more than one Discord client (e.g. Stable and Canary) is running, or when a socket was left
+     * behind by a client which is no longer running. The connection is only as slow as the fastest client which is
+     * running. Racing needs a {@link dev.caoimhe.jdiscordipc.socket.SystemSocketFactory} to open the extra connections,
+     * see {@link dev.caoimhe.jdiscordipc.builder.JDiscordIPCBuilder}. The connection which wins the race is kept, so the
+     * handshake isn't repeated.
+     */
+    public @Nullable Duration raceDeadline() {
+        return this.raceDeadline;
+    }
+
+    /**
+     * The amount of time that {@link JDiscordIPC#connectAsync(ConnectOptions)} waits for the connection to be
+     * established, which includes looking for the socket. Defaults to {@link #DEFAULT_CONNECT_TIMEOUT}.
+     */
+    public Duration connectTimeout() {
+        return this.connectTimeout;
+    }
+
+    /**
+     * The amount of time that {@link JDiscordIPC#connectAsync(ConnectOptions)} waits for the Discord client to accept
+     * the handshake (see {@link dev.caoimhe.jdiscordipc.event.model.ReadyEvent}), once the connection has been
+     * established. Defaults to {@link #DEFAULT_HANDSHAKE_TIMEOUT}.
+     */
+    public Duration handshakeTimeout() {
+        return this.handshakeTimeout;
+    }
+
     /**
      * Returns a {@link Builder} to construct an instance of {@link ConnectOptions}.
      */
@@ -47,6 +170,11 @@ public class ConnectOptions {
     public static class Builder {
         private @Nullable Integer socketIndex = null;
         private @Nullable Path temporaryDirectory = null;
+        private SocketDiscovery socketDiscovery = SocketDiscovery.POLL;
+        private boolean persistSocketHint = false;
+        private @Nullable Duration raceDeadline = null;
+        private Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+        private Duration handshakeTimeout = DEFAULT_HANDSHAKE_TIMEOUT;
 
         /**
          * @see ConnectOptions#builder().
@@ -74,13 +202,70 @@ public class ConnectOptions {
             return this;
         }
 
+        /**
+         * Sets how the Discord IPC socket is waited for while reconnecting.
+         *
+         * @see ConnectOptions#socketDiscovery()
+         */
+        public Builder socketDiscovery(final SocketDiscovery socketDiscovery) {
+            this.socketDiscovery = socketDiscovery;
+            return this;
+        }
+
+        /**
+         * Sets whether the path of the last Discord IPC socket that was connected to should be persisted.
+         *
+         * @see ConnectOptions#persistSocketHint()
+         */
+        public Builder persistSocketHint(final boolean persistSocketHint) {
+            this.persistSocketHint = persistSocketHint;
+            return this;
+        }
+
+        /**
+         * Sets the deadline for racing connections to every Discord IPC socket that exists.
+         *
+         * @see ConnectOptions#raceDeadline()
+         */
+        public Builder raceDeadline(final @Nullable Duration raceDeadline) {
+            this.raceDeadline = raceDeadline;
+            return this;
+        }
+
+        /**
+         * Sets the amount of time that {@link JDiscordIPC#connectAsync(ConnectOptions)} waits for the connection to be
+         * established.
+         *
+         * @see ConnectOptions#connectTimeout()
+         */
+        public Builder connectTimeout(final Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the amount of time that {@link JDiscordIPC#connectAsync(ConnectOptions)} waits for the Discord client to
+         * accept the handshake.
+         *
+         * @see ConnectOptions#handshakeTimeout()
+         */
+        public Builder handshakeTimeout(final Duration handshakeTimeout) {
+            this.handshakeTimeout = handshakeTimeout;
+            return this;
+        }
+
         /**
          * Builds an instance of {@link ConnectOptions} from the properties set on this {@link Builder}.
          */
         public ConnectOptions build() {
             return new ConnectOptions(
                 /* socketIndex */ this.socketIndex,
-                /* temporaryDirectory */ this.temporaryDirectory
+                /* temporaryDirectory */ this.temporaryDirectory,
+                /* socketDiscovery */ this.socketDiscovery,
+                /* persistSocketHint */ this.persistSocketHint,
+                /* raceDeadline */ this.raceDeadline,
+                /* connectTimeout */ this.connectTimeout,
+                /* handshakeTimeout */ this.handshakeTimeout
             );
         }
     }
@@ -0,0 +1,219 @@
+package dev.caoimhe.jdiscordipc;
+
+import dev.caoimhe.jdiscordipc.event.model.ReadyEvent;
+import dev.caoimhe.jdiscordipc.packet.Packet;
+import dev.caoimhe.jdiscordipc.packet.codec.BufferPool;
+import dev.caoimhe.jdiscordipc.packet.codec.PacketCodec;
+import dev.caoimhe.jdiscordipc.packet.codec.PacketRegistry;
+import dev.caoimhe.jdiscordipc.packet.impl.HandshakePacket;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.incoming.DispatchEventPacket;
+import dev.caoimhe.jdiscordipc.socket.SystemSocket;
+import dev.caoimhe.jdiscordipc.socket.SystemSocketFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds which of several Discord IPC sockets belongs to a Discord client that is ready, see
+ * {@link ConnectOptions#raceDeadline()}.
+ * <p>
+ * A probe connection is opened to every socket at once. Each probe sends a handshake, and the first socket whose client
+ * responds with {@link ReadyEvent} wins. Sockets which were left behind by a client that is no longer running fail
+ * straight away, and a client which is slow to respond can't hold up the others. The winning probe is handed back to be
+ * used as the connection, every other probe is closed once the race is over.
+ * <p>
+ * Probes are run by a bounded pool of threads, which exit when no race is running. If there are more sockets than
+ * threads, the remaining probes wait for a thread to be free.
+ */
+class ConnectionRace {
+    /**
+     * The maximum number of probes that are run at once.
+     */
+    private static final int MAXIMUM_PROBE_THREADS = 10;
+
+    /**
+     * How long a probe thread waits for another probe before exiting.
+     */
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 10;
+
+    private final SystemSocketFactory systemSocketFactory;
+    private final long clientId;
+
+    /**
+     * Runs the probes for each race.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Initializes a new {@link ConnectionRace}.
+     *
+     * @param systemSocketFactory Creates the socket for each probe connection.
+     * @param clientId            The client ID to send in each probe's handshake.
+     */
+    ConnectionRace(final SystemSocketFactory systemSocketFactory, final long clientId) {
+        this.systemSocketFactory = systemSocketFactory;
+        this.clientId = clientId;
+        this.executor = new ThreadPoolExecutor(
+            MAXIMUM_PROBE_THREADS,
+            MAXIMUM_PROBE_THREADS,
+            THREAD_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                final Thread thread = new Thread(runnable, "JDiscordIPC-Connection-Race");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Races probe connections to every candidate socket.
+     *
+     * @param candidates The sockets to connect to.
+     * @param deadline   The longest amount of time to wait for a client to be ready.
+     * @return The probe connection to the first socket whose client was ready. The caller is responsible for closing it.
+     * @throws IOException If no client was ready before the deadline, or every probe failed.
+     */
+    Winner run(final List<Path> candidates, final Duration deadline) throws IOException {
+        final CompletableFuture<Winner> winner = new CompletableFuture<>();
+        final AtomicInteger remaining = new AtomicInteger(candidates.size());
+        final List<SystemSocket> sockets = new ArrayList<>(candidates.size());
+
+        Winner result = null;
+        try {
+            for (final Path candidate : candidates) {
+                final SystemSocket socket = this.systemSocketFactory.createSystemSocket();
+                sockets.add(socket);
+
+                this.executor.execute(() -> this.probe(socket, candidate, winner, remaining));
+            }
+
+            result = winner.get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+            return result;
+        } catch (final TimeoutException e) {
+            throw new IOException("No Discord client was ready within " + deadline.toMillis() + "ms", e);
+        } catch (final ExecutionException e) {
+            throw new IOException("No Discord client was ready", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a Discord client to be ready", e);
+        } finally {
+            // Any probe which finishes from now on has lost, even if its client is ready.
+            winner.cancel(false);
+
+            // Closing the sockets wakes up any probes which are still waiting for a response.
+            for (final SystemSocket socket : sockets) {
+                if (result == null || socket != result.socket) {
+                    closeQuietly(socket);
+                }
+            }
+        }
+    }
+
+    /**
+     * Connects to a socket and waits for its client to be ready, completing the winner if it is the first.
+     */
+    private void probe(
+        final SystemSocket socket,
+        final Path candidate,
+        final CompletableFuture<Winner> winner,
+        final AtomicInteger remaining
+    ) {
+        // The race may have finished while this probe was waiting for a thread.
+        if (winner.isDone()) {
+            return;
+        }
+
+        boolean won = false;
+        try {
+            socket.connect(candidate);
+
+            // Only the ready event matters, anything else that the client sends can be dropped without decoding it. The
+            // socket is read without reading ahead, so that nothing after the ready event is lost if this probe wins.
+            final PacketCodec codec = new PacketCodec(
+                socket::readFully,
+                socket::write,
+                new BufferPool(false),
+                PacketRegistry.withDefaults(),
+                true,
+                eventType -> eventType == ReadyEvent.class
+            );
+            codec.write(new HandshakePacket(this.clientId));
+
+            Packet packet;
+            while (!winner.isDone() && (packet = codec.read()) != null) {
+                if (packet instanceof DispatchEventPacket && ((DispatchEventPacket) packet).data() instanceof ReadyEvent) {
+                    won = winner.complete(new Winner(candidate, socket, (DispatchEventPacket) packet));
+                    return;
+                }
+            }
+
+            throw new IOException("The connection to " + candidate + " was closed before it was ready");
+        } catch (final Exception e) {
+            // The last probe to fail reports its error, unless another probe has already won.
+            if (remaining.decrementAndGet() == 0) {
+                winner.completeExceptionally(e);
+            }
+        } finally {
+            // A probe which lost may have connected after the race closed its socket.
+            if (!won) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private static void closeQuietly(final SystemSocket socket) {
+        try {
+            socket.close();
+        } catch (final IOException ignored) {
+        }
+    }
+
+    /**
+     * The probe connection which won a race.
+     */
+    static class Winner {
+        private final Path path;
+        private final SystemSocket socket;
+        private final DispatchEventPacket readyPacket;
+
+        private Winner(final Path path, final SystemSocket socket, final DispatchEventPacket readyPacket) {
+            this.path = path;
+            this.socket = socket;
+            this.readyPacket = readyPacket;
+        }
+
+        /**
+         * The path of the socket that the probe connected to.
+         */
+        Path path() {
+            return this.path;
+        }
+
+        /**
+         * The probe's connection, whose handshake has been accepted.
+         */
+        SystemSocket socket() {
+            return this.socket;
+        }
+
+        /**
+         * The packet containing the {@link ReadyEvent} that the client sent to the probe.
+         */
+        DispatchEventPacket readyPacket() {
+            return this.readyPacket;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package dev.caoimhe.jdiscordipc;
 
+import dev.caoimhe.jdiscordipc.activity.ActivityDeduplication;
 import dev.caoimhe.jdiscordipc.activity.ActivityManager;
+import dev.caoimhe.jdiscordipc.activity.ActivityRateLimit;
 import dev.caoimhe.jdiscordipc.activity.model.Activity;
 import dev.caoimhe.jdiscordipc.activity.model.ActivityBuilder;
 import dev.caoimhe.jdiscordipc.builder.JDiscordIPCBuilder;
@@ -11,12 +13,16 @@ import dev.caoimhe.jdiscordipc.exception.JDiscordIPCException;
 import dev.caoimhe.jdiscordipc.packet.Packet;
 import dev.caoimhe.jdiscordipc.packet.PacketHandler;
 import dev.caoimhe.jdiscordipc.packet.PacketManager;
+import dev.caoimhe.jdiscordipc.packet.PacketWriter;
+import dev.caoimhe.jdiscordipc.packet.codec.PacketRegistry;
 import dev.caoimhe.jdiscordipc.packet.impl.HandshakePacket;
 import dev.caoimhe.jdiscordipc.packet.impl.PingPacket;
 import dev.caoimhe.jdiscordipc.packet.impl.PongPacket;
 import dev.caoimhe.jdiscordipc.packet.impl.frame.incoming.DispatchEventPacket;
 import dev.caoimhe.jdiscordipc.socket.SystemSocket;
+import dev.caoimhe.jdiscordipc.socket.SystemSocketFactory;
 import dev.caoimhe.jdiscordipc.internal.util.CollectionsUtil;
+import dev.caoimhe.jdiscordipc.internal.util.HashedTimingWheel;
 import dev.caoimhe.jdiscordipc.internal.util.SystemUtil;
 import org.jspecify.annotations.Nullable;
 
@@ -24,12 +30,16 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The main entrypoint for JDiscordIPC.
@@ -54,14 +64,68 @@ public class JDiscordIPC implements DiscordEventListener, PacketHandler {
         "snap.discord-ptb"
     );
 
-    private JDiscordIPCState state;
+    /**
+     * The prefix of the name of each Discord IPC socket, which is followed by its index.
+     */
+    static final String IPC_FILE_PREFIX = "discord-ipc-";
+
+    /**
+     * The types of events that {@link JDiscordIPC} itself handles.
+     */
+    private static final Set<Class<? extends Event>> EVENT_TYPES = CollectionsUtil.setOf(ReadyEvent.class);
+
+    private volatile JDiscordIPCState state;
 
     private final ActivityManager activityManager;
     private final long clientId;
     private final List<DiscordEventListener> eventListeners;
+
+    /**
+     * The event listeners which handle each type of event, computed from {@link #eventListeners} when an event of that
+     * type is first received. This is cleared whenever a new event listener is registered.
+     */
+    private final Map<Class<? extends Event>, List<DiscordEventListener>> eventListenersByType;
     private final PacketManager packetManager;
     private final ReconnectPolicy reconnectPolicy;
-    private final SystemSocket systemSocket;
+    private final ReconnectManager reconnectManager;
+
+    /**
+     * The socket that packets are read from and written to. This is the socket provided during initialization, until a
+     * probe connection wins a {@link ConnectionRace} and is swapped in.
+     */
+    private final SwappableSystemSocket systemSocket;
+
+    /**
+     * Races probe connections when connecting (see {@link ConnectOptions#raceDeadline()}), or null if no
+     * {@link SystemSocketFactory} was provided to create them.
+     */
+    private final @Nullable ConnectionRace connectionRace;
+
+    /**
+     * The options of the last call to {@link #connect(ConnectOptions)}, which are used again when reconnecting.
+     */
+    private volatile @Nullable ConnectOptions connectOptions;
+
+    /**
+     * The path of the last socket that was connected to, which is tried before looking for the socket again.
+     */
+    private final SocketPathHint socketPathHint;
+
+    /**
+     * Runs every timeout of this instance: those of requests sent by the {@link PacketManager}, rate limited updates
+     * sent by the {@link ActivityManager}, and those of the futures returned by {@link #connectAsync(ConnectOptions)}.
+     */
+    private final HashedTimingWheel timingWheel;
+
+    /**
+     * The futures returned by {@link #connectAsync(ConnectOptions)} which are waiting for {@link ReadyEvent}.
+     */
+    private final List<CompletableFuture<ReadyEvent>> readyFutures;
+
+    /**
+     * The {@link ReadyEvent} of the current connection, or null if the Discord client is not ready.
+     */
+    private volatile @Nullable ReadyEvent readyEvent;
 
     /**
      * Initializes a new {@link JDiscordIPC} instance.
@@ -75,19 +139,95 @@ public class JDiscordIPC implements DiscordEventListener, PacketHandler {
         final long clientId,
         final ReconnectPolicy reconnectPolicy,
         final SystemSocket systemSocket
+    ) {
+        this(
+            clientId,
+            reconnectPolicy,
+            systemSocket,
+            false,
+            PacketRegistry.withDefaults(),
+            false,
+            PacketManager.DEFAULT_REQUEST_TIMEOUT,
+            PacketWriter.DEFAULT_CAPACITY,
+            BackpressurePolicy.DROP_OLDEST,
+            ActivityRateLimit.DISCORD,
+            ActivityDeduplication.EQUALITY,
+            null
+        );
+    }
+
+    /**
+     * Initializes a new {@link JDiscordIPC} instance.
+     *
+     * @param clientId              The client ID to use when communicating with Discord.
+     * @param reconnectPolicy       How this instance should behave when the Discord client terminates the connection.
+     * @param systemSocket          The system socket to read messages from and send messages to.
+     * @param directBuffers         Whether packets should be read into and written from direct buffers, if the system
+     *                              socket supports them.
+     * @param packetRegistry        Describes how each type of incoming packet is decoded.
+     * @param lazyFrameDecoding     Whether the data of incoming frame packets should only be deserialized when it is
+     *                              first requested.
+     * @param requestTimeout        The amount of time to wait for a response to a request sent to the Discord
+     *                              client.
+     * @param outgoingQueueCapacity The number of outgoing frame packets that can be waiting to be written at once.
+     * @param backpressurePolicy    What happens when a packet is sent while the outgoing packet queue is full.
+     * @param activityRateLimit     The rate that activity updates are sent to the Discord client at.
+     * @param activityDeduplication How an activity update is compared with the last activity that was sent, to avoid
+     *                              sending it again.
+     * @param systemSocketFactory   Creates the sockets for probe connections when racing connections, or null if
+     *                              connections should not be raced (see {@link ConnectOptions#raceDeadline()}).
+     * @see dev.caoimhe.jdiscordipc.builder.JDiscordIPCBuilder
+     */
+    public JDiscordIPC(
+        final long clientId,
+        final ReconnectPolicy reconnectPolicy,
+        final SystemSocket systemSocket,
+        final boolean directBuffers,
+        final PacketRegistry packetRegistry,
+        final boolean lazyFrameDecoding,
+        final Duration requestTimeout,
+        final int outgoingQueueCapacity,
+        final BackpressurePolicy backpressurePolicy,
+        final ActivityRateLimit activityRateLimit,
+        final ActivityDeduplication activityDeduplication,
+        final @Nullable SystemSocketFactory systemSocketFactory
     ) {
         this.clientId = clientId;
         this.reconnectPolicy = reconnectPolicy;
         this.state = JDiscordIPCState.DISCONNECTED;
-        this.systemSocket = systemSocket;
+        this.systemSocket = new SwappableSystemSocket(systemSocket);
+        this.connectionRace = systemSocketFactory != null ? new ConnectionRace(systemSocketFactory, clientId) : null;
 
         // The most important thing is that JDiscordIPC is the first event listener. Its state is important to other
         // event listeners.
-        this.eventListeners = new ArrayList<>();
+        this.eventListeners = new CopyOnWriteArrayList<>();
         this.eventListeners.add(this);
-
-        this.packetManager = new PacketManager(this, this.systemSocket);
-        this.activityManager = new ActivityManager(this, this.packetManager);
+        this.eventListenersByType = new ConcurrentHashMap<>();
+        this.timingWheel = new HashedTimingWheel("JDiscordIPC-Timer");
+
+        this.packetManager = new PacketManager(
+            this,
+            this.systemSocket,
+            directBuffers,
+            packetRegistry,
+            lazyFrameDecoding,
+            requestTimeout,
+            outgoingQueueCapacity,
+            backpressurePolicy,
+            this.timingWheel
+        );
+        this.activityManager = new ActivityManager(
+            this,
+            this.packetManager,
+            activityRateLimit,
+            activityDeduplication,
+            this.timingWheel
+        );
+        this.reconnectManager = new ReconnectManager(this, reconnectPolicy);
+        this.connectOptions = null;
+        this.socketPathHint = new SocketPathHint();
+        this.readyFutures = new CopyOnWriteArrayList<>();
+        this.readyEvent = null;
     }
 
     /**
@@ -104,25 +244,177 @@ public class JDiscordIPC implements DiscordEventListener, PacketHandler {
     /**
      * Connects to the running Discord application through the {@link SystemSocket} provided during initialization.
      * This method will block until the connection is initiated, but not until it is ready (see {@link ReadyEvent}).
+     * <p>
+     * If the connection is closed later on, the {@link ReconnectPolicy} decides whether it is re-established with the
+     * same options. Calling this cancels any reconnect attempt which is waiting to be made.
      *
      * @throws JDiscordIPCException.DiscordClientUnavailableException When the connection could not be initiated.
      * @see ConnectOptions
      */
     public void connect(final ConnectOptions options) throws JDiscordIPCException.DiscordClientUnavailableException {
+        this.reconnectManager.cancel();
+        this.establishConnection(options);
+    }
+
+    /**
+     * Connects to the running Discord application without blocking the calling thread.
+     *
+     * @see JDiscordIPC#connectAsync(ConnectOptions)
+     */
+    public CompletableFuture<ReadyEvent> connectAsync() {
+        return this.connectAsync(ConnectOptions.builder().build());
+    }
+
+    /**
+     * Connects to the running Discord application without blocking the calling thread. The connection is initiated by
+     * the thread which makes reconnect attempts (see {@link ReconnectManager}), in the same way as
+     * {@link #connect(ConnectOptions)}.
+     * <p>
+     * If the Discord client is already ready, the returned future is already completed. If a connection is already
+     * being made, the returned future waits for it instead of making another, and the options are ignored.
+     * <p>
+     * The returned future completes once the Discord client is ready (see {@link ReadyEvent}). It completes
+     * exceptionally with:
+     * <ul>
+     *     <li>{@link JDiscordIPCException.DiscordClientUnavailableException} if the connection could not be initiated,
+     *     or any other exception which was thrown while initiating it.</li>
+     *     <li>{@link JDiscordIPCException.ConnectTimeoutException} if the connection was not initiated within
+     *     {@link ConnectOptions#connectTimeout()}, or the Discord client was not ready within
+     *     {@link ConnectOptions#handshakeTimeout()} after that.</li>
+     *     <li>{@link JDiscordIPCException.ConnectionClosedException} if the connection was closed before the Discord
+     *     client was ready.</li>
+     * </ul>
+     * A timeout only completes the future, the connection attempt itself is not abandoned. If it succeeds later on, the
+     * connection is used as normal.
+     * <p>
+     * The future is completed on one of JDiscordIPC's threads, so any long-running work which depends on it should use
+     * the {@code async} variants of {@link CompletableFuture}'s methods.
+     *
+     * @see ConnectOptions
+     */
+    public synchronized CompletableFuture<ReadyEvent> connectAsync(final ConnectOptions options) {
+        // The future is registered before the state is checked, so that the Discord client becoming ready, or the
+        // connection failing or closing, can't happen in between without completing it.
+        final CompletableFuture<ReadyEvent> future = new CompletableFuture<>();
+        this.readyFutures.add(future);
+        future.whenComplete((event, throwable) -> this.readyFutures.remove(future));
+
+        final ReadyEvent readyEvent = this.readyEvent;
+        if (readyEvent != null) {
+            future.complete(readyEvent);
+            return future;
+        }
+
+        if (this.state == JDiscordIPCState.CONNECTING) {
+            // The connection being made may be waiting for the socket or for the handshake, it's not known which.
+            final Duration timeout = options.connectTimeout().plus(options.handshakeTimeout());
+            final HashedTimingWheel.Timeout readyTimeout = this.scheduleConnectTimeout(future, "ready", timeout);
+            future.whenComplete((event, throwable) -> readyTimeout.cancel());
+            return future;
+        }
+
+        final HashedTimingWheel.Timeout connectTimeout = this.scheduleConnectTimeout(future, "established", options.connectTimeout());
+        future.whenComplete((event, throwable) -> connectTimeout.cancel());
+
+        // Any later call waits for this connection, instead of making another. A reconnect attempt which is waiting to
+        // be made is cancelled, so that it doesn't hold up the thread that this connection is made on.
+        this.state = JDiscordIPCState.CONNECTING;
+        this.reconnectManager.cancel();
+        this.reconnectManager.execute(() -> {
+            try {
+                this.connect(options);
+            } catch (final Throwable throwable) {
+                // Exceptions have already failed every waiting future, but anything else has not.
+                this.state = JDiscordIPCState.DISCONNECTED;
+                this.failReadyFutures(throwable);
+                return;
+            }
+
+            connectTimeout.cancel();
+
+            // The Discord client may have already become ready, in which case there's nothing left to wait for.
+            if (!future.isDone()) {
+                final HashedTimingWheel.Timeout handshakeTimeout = this.scheduleConnectTimeout(future, "ready", options.handshakeTimeout());
+                future.whenComplete((event, throwable) -> handshakeTimeout.cancel());
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Connects to the running Discord application, without cancelling any scheduled reconnect attempts. This is called
+     * by {@link ReconnectManager} for each attempt.
+     *
+     * @throws JDiscordIPCException.DiscordClientUnavailableException When the connection could not be initiated.
+     */
+    void establishConnection(final ConnectOptions options) throws JDiscordIPCException.DiscordClientUnavailableException {
+        this.connectOptions = options;
+
         try {
             this.state = JDiscordIPCState.CONNECTING;
 
-            final Path discordIpcPath = this.getIpcFilePath(options);
-            this.systemSocket.connect(discordIpcPath);
+            // When racing, every socket is tried, as the hint may belong to a client which is slower to be ready. The
+            // winning probe has already been handshaked with, so it becomes the connection where possible.
+            final Path hintFile = this.getSocketHintFile(options);
+            final Duration raceDeadline = options.raceDeadline();
+            final Path discordIpcPath;
+            DispatchEventPacket readyPacket = null;
+            final ConnectionRace.Winner winner = raceDeadline != null ? this.raceIpcFilePaths(options, raceDeadline) : null;
+            if (winner != null) {
+                discordIpcPath = winner.path();
+                if (this.adoptProbeConnection(winner)) {
+                    readyPacket = winner.readyPacket();
+                } else {
+                    this.systemSocket.connect(discordIpcPath);
+                }
+            } else {
+                discordIpcPath = this.connectToIpcFilePath(options, hintFile);
+            }
+
+            this.socketPathHint.remember(discordIpcPath, hintFile);
 
-            // We can now tell the packet manager to start its packet reading thread.
-            this.packetManager.startReadingIncomingPackets();
+            if (readyPacket != null) {
+                // The ready event is dispatched by the packet reading thread, ahead of anything else it reads.
+                this.packetManager.startReadingIncomingPackets(readyPacket);
+            } else {
+                // We can now tell the packet manager to start its packet reading thread.
+                this.packetManager.startReadingIncomingPackets();
 
-            // To mark the connection as ready, we must send a handshake to the client containing our client ID.
-            this.packetManager.sendPacket(new HandshakePacket(this.clientId));
+                // To mark the connection as ready, we must send a handshake to the client containing our client ID.
+                this.packetManager.sendPacket(new HandshakePacket(this.clientId));
+            }
+        } catch (final JDiscordIPCException.DiscordClientUnavailableException e) {
+            this.onConnectionFailed(e);
+            throw e;
         } catch (final IOException e) {
-            this.state = JDiscordIPCState.DISCONNECTED;
-            throw new JDiscordIPCException.DiscordClientUnavailableException(e);
+            final JDiscordIPCException.DiscordClientUnavailableException exception = new JDiscordIPCException.DiscordClientUnavailableException(e);
+            this.onConnectionFailed(exception);
+            throw exception;
+        } catch (final RuntimeException e) {
+            // e.g. the socket was already connected, the connection attempt is over either way.
+            this.onConnectionFailed(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Called when a connection attempt fails, whether it was made by {@link #connect(ConnectOptions)},
+     * {@link #connectAsync(ConnectOptions)} or the {@link ReconnectManager}. Every future which is waiting for the
+     * Discord client to be ready is failed with the reason, as nothing else will complete it.
+     */
+    private void onConnectionFailed(final Exception exception) {
+        this.state = JDiscordIPCState.DISCONNECTED;
+        this.failReadyFutures(exception);
+    }
+
+    /**
+     * Completes every future returned by {@link #connectAsync(ConnectOptions)} which is waiting for {@link ReadyEvent}
+     * exceptionally.
+     */
+    private void failReadyFutures(final Throwable throwable) {
+        for (final CompletableFuture<ReadyEvent> future : this.readyFutures) {
+            future.completeExceptionally(throwable);
         }
     }
 
@@ -155,6 +447,34 @@ public class JDiscordIPC implements DiscordEventListener, PacketHandler {
      */
     public void registerEventListener(final DiscordEventListener listener) {
         this.eventListeners.add(listener);
+        this.eventListenersByType.clear();
+    }
+
+    /**
+     * Returns the {@link PacketManager} used to communicate with the Discord client.
+     * <p>
+     * This is mostly useful for inspecting statistics, like {@link dev.caoimhe.jdiscordipc.packet.codec.BufferPool#hitCount()}.
+     */
+    public PacketManager packetManager() {
+        return this.packetManager;
+    }
+
+    /**
+     * Returns the {@link ActivityManager} used to set the current user's activity.
+     * <p>
+     * This is mostly useful for inspecting statistics, like {@link ActivityManager#collapsedUpdateCount()}.
+     */
+    public ActivityManager activityManager() {
+        return this.activityManager;
+    }
+
+    /**
+     * Returns the {@link ReconnectManager} used to reconnect to the Discord client after the connection is closed.
+     * <p>
+     * This is mostly useful for inspecting statistics, like {@link ReconnectManager#attemptCount()}.
+     */
+    public ReconnectManager reconnectManager() {
+        return this.reconnectManager;
     }
 
     /**
@@ -164,10 +484,20 @@ public class JDiscordIPC implements DiscordEventListener, PacketHandler {
         return this.state;
     }
 
+    @Override
+    public Set<Class<? extends Event>> eventTypes() {
+        return EVENT_TYPES;
+    }
+
     @Override
     public void onReadyEvent(final ReadyEvent event) {
         // When the Discord client informs us that it is ready for communication, we can set the state to ready.
+        this.readyEvent = event;
         this.state = JDiscordIPCState.READY;
+
+        for (final CompletableFuture<ReadyEvent> future : this.readyFutures) {
+            future.complete(event);
+        }
     }
 
     /**
@@ -188,23 +518,81 @@ public class JDiscordIPC implements DiscordEventListener, PacketHandler {
             final Event event = ((DispatchEventPacket) packet).data();
 
             try {
-                this.eventListeners.forEach(it -> it.onEvent(event));
+                this.eventListenersFor(event.getClass()).forEach(it -> it.onEvent(event));
             } catch (final Exception e) {
                 System.err.println("Failed to dispatch event to event listeners: " + e);
             }
         }
     }
 
+    @Override
+    public boolean isSubscribedTo(final Class<? extends Event> eventType) {
+        return !this.eventListenersFor(eventType).isEmpty();
+    }
+
     @Override
     public void handleEOF() {
+        // The ready event is cleared first, so that connectAsync never sees it once the connection is being closed.
+        this.readyEvent = null;
         this.state = JDiscordIPCState.DISCONNECTED;
+        this.packetManager.stopReadingIncomingPackets();
+
+        // The socket has to be closed before it can be connected again.
+        try {
+            this.systemSocket.close();
+        } catch (final IOException e) {
+            System.err.println("Failed to close the connection to the Discord client: " + e);
+        }
+
+        this.failReadyFutures(new JDiscordIPCException.ConnectionClosedException());
 
         if (this.reconnectPolicy == ReconnectPolicy.NEVER) {
             System.out.println("The Discord client terminated the connection. Not attempting to reconnect as the reconnect policy is set to never.");
-            this.packetManager.stopReadingIncomingPackets();
+            return;
+        }
+
+        final ConnectOptions options = this.connectOptions;
+        if (options == null || !this.reconnectManager.scheduleReconnect(options)) {
+            System.out.println("The Discord client terminated the connection. Not attempting to reconnect as the reconnect policy does not allow it.");
         }
     }
 
+    /**
+     * Schedules a future returned by {@link #connectAsync(ConnectOptions)} to be completed exceptionally once the timeout
+     * expires.
+     *
+     * @param stage The stage of the connection which is waited for, this is used in the exception message.
+     */
+    private HashedTimingWheel.Timeout scheduleConnectTimeout(
+        final CompletableFuture<ReadyEvent> future,
+        final String stage,
+        final Duration timeout
+    ) {
+        return this.timingWheel.schedule(
+            () -> future.completeExceptionally(new JDiscordIPCException.ConnectTimeoutException(stage, timeout)),
+            timeout.toNanos(),
+            TimeUnit.NANOSECONDS
+        );
+    }
+
+    /**
+     * Returns the registered event listeners which handle events of the provided type, in the order that they were
+     * registered.
+     */
+    private List<DiscordEventListener> eventListenersFor(final Class<? extends Event> eventType) {
+        return this.eventListenersByType.computeIfAbsent(eventType, type -> {
+            final List<DiscordEventListener> listeners = new ArrayList<>();
+            for (final DiscordEventListener listener : this.eventListeners) {
+                final Set<Class<? extends Event>> listenerEventTypes = listener.eventTypes();
+                if (listenerEventTypes == null || listenerEventTypes.stream().anyMatch(it -> it.isAssignableFrom(type))) {
+                    listeners.add(listener);
+                }
+            }
+
+            return listeners;
+        });
+    }
+
     /**
      * Attempts to find a Unix domain socket file to connect to the Discord client in the system's temporary directory.
      * <p>
@@ -217,40 +605,273 @@ public class JDiscordIPC implements DiscordEventListener, PacketHandler {
      * @throws JDiscordIPCException.DiscordClientUnavailableException If a Unix domain socket file could not be found.
      */
     private Path getIpcFilePath(final ConnectOptions options) throws JDiscordIPCException.DiscordClientUnavailableException {
-        final Path temporaryDirectory;
-        final Path temporaryDirectoryOverride = options.temporaryDirectory();
+        final Path ipcFilePath = this.findIpcFilePath(options, this.getIpcDirectories(options));
+        if (ipcFilePath != null) {
+            return ipcFilePath;
+        }
 
+        throw new JDiscordIPCException.DiscordClientUnavailableException(null);
+    }
+
+    /**
+     * Connects to the socket that was last connected to, or otherwise the first Unix domain socket file that can be
+     * found (see {@link #getIpcFilePath(ConnectOptions)}).
+     *
+     * @param hintFile The file that the hint is persisted to, or null if it is not persisted.
+     * @return The path of the socket that was connected to.
+     * @throws JDiscordIPCException.DiscordClientUnavailableException If a Unix domain socket file could not be found.
+     * @throws IOException                                            If the socket could not be connected to.
+     */
+    private Path connectToIpcFilePath(final ConnectOptions options, final @Nullable Path hintFile) throws IOException, JDiscordIPCException.DiscordClientUnavailableException {
+        // The socket is usually where it was last time, in which case it doesn't need to be looked for.
+        final Path hint = this.connectToSocketHint(options, hintFile);
+        if (hint != null) {
+            return hint;
+        }
+
+        final Path discordIpcPath = this.getIpcFilePath(options);
+        this.systemSocket.connect(discordIpcPath);
+        return discordIpcPath;
+    }
+
+    /**
+     * Finds every Unix domain socket file to connect to the Discord client, and races probe connections to them to find
+     * the first whose client is ready (see {@link ConnectionRace}).
+     * <p>
+     * If only one socket exists, or no {@link SystemSocketFactory} was provided, there's nothing to race, and null is
+     * returned so that the socket is connected to as usual.
+     *
+     * @return The probe connection which won the race, or null if there was no race.
+     * @throws JDiscordIPCException.DiscordClientUnavailableException If no socket exists, or no client was ready before
+     *                                                                the deadline.
+     */
+    private ConnectionRace.@Nullable Winner raceIpcFilePaths(final ConnectOptions options, final Duration deadline) throws JDiscordIPCException.DiscordClientUnavailableException {
+        final List<Path> candidates = new ArrayList<>();
+        for (final Path directory : this.getIpcDirectories(options)) {
+            this.collectIpcFilePaths(options, directory, candidates);
+        }
+
+        if (candidates.isEmpty()) {
+            throw new JDiscordIPCException.DiscordClientUnavailableException(null);
+        }
+
+        if (candidates.size() == 1 || this.connectionRace == null) {
+            return null;
+        }
+
+        try {
+            return this.connectionRace.run(candidates, deadline);
+        } catch (final IOException e) {
+            throw new JDiscordIPCException.DiscordClientUnavailableException(e);
+        }
+    }
+
+    /**
+     * Swaps the probe connection which won a race in as the connection, replacing the socket that was provided during
+     * initialization.
+     * <p>
+     * The packet codec was set up for the buffers and reads which the current socket supports, so a probe connection
+     * that differs can't be swapped in. In that case, it is closed, and the caller must connect and handshake again.
+     *
+     * @return Whether the probe connection was swapped in.
+     */
+    private boolean adoptProbeConnection(final ConnectionRace.Winner winner) {
+        final SystemSocket probeSocket = winner.socket();
+        final boolean compatible = probeSocket.supportsDirectBuffers() == this.systemSocket.supportsDirectBuffers()
+            && probeSocket.supportsPartialReads() == this.systemSocket.supportsPartialReads();
+
+        final SystemSocket unusedSocket = compatible ? this.systemSocket.swap(probeSocket) : probeSocket;
+        try {
+            unusedSocket.close();
+        } catch (final IOException ignored) {
+        }
+
+        return compatible;
+    }
+
+    /**
+     * Attempts to connect to the socket that was last connected to, if it could have been found with the provided
+     * options.
+     *
+     * @param hintFile The file that the hint is persisted to, or null if it is not persisted.
+     * @return The path of the socket, or null if there is no hint or it could not be connected to.
+     */
+    private @Nullable Path connectToSocketHint(final ConnectOptions options, final @Nullable Path hintFile) {
+        final Path hint = this.socketPathHint.get(hintFile);
+        if (hint == null) {
+            return null;
+        }
+
+        // The hint is only trusted if it's a socket that these options would find, as the persisted hint could have
+        // been written by a run with different options, or by another process entirely.
+        if (!this.isPossibleIpcFilePath(options, hint)) {
+            this.socketPathHint.forget();
+            return null;
+        }
+
+        try {
+            this.systemSocket.connect(hint);
+            return hint;
+        } catch (final IOException e) {
+            // The Discord client has either moved, or is not running. The socket may be left in an unusable state.
+            this.socketPathHint.forget();
+            try {
+                this.systemSocket.close();
+            } catch (final IOException ignored) {
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Returns the file that the socket hint is persisted to, or null if {@link ConnectOptions#persistSocketHint()} is
+     * not enabled.
+     */
+    private @Nullable Path getSocketHintFile(final ConnectOptions options) {
+        if (!options.persistSocketHint()) {
+            return null;
+        }
+
+        // Named pipes live in a directory which can't contain files, so the hint goes in the JVM's temporary directory.
+        final Path directory = SystemUtil.isWindows()
+            ? Paths.get(System.getProperty("java.io.tmpdir"))
+            : this.getTemporaryDirectory(options);
+        return directory.resolve(SocketPathHint.fileName(this.clientId));
+    }
+
+    /**
+     * Blocks until a Unix domain socket file to connect to the Discord client exists, see {@link SocketDiscovery#WATCH}.
+     * This returns immediately if one already exists.
+     *
+     * @throws IOException          If the directories that the socket may be created in could not be watched.
+     * @throws InterruptedException If the thread was interrupted while waiting.
+     */
+    Path awaitIpcFilePath(final ConnectOptions options) throws IOException, InterruptedException {
+        final List<Path> directories = this.getIpcDirectories(options);
+        final SocketWatcher watcher = new SocketWatcher(
+            this.getTemporaryDirectory(options),
+            directories,
+            () -> this.findIpcFilePath(options, directories)
+        );
+
+        return watcher.await();
+    }
+
+    /**
+     * Returns the first Unix domain socket file which exists in the provided directories, or null if there isn't one.
+     */
+    private @Nullable Path findIpcFilePath(final ConnectOptions options, final List<Path> directories) {
+        for (final Path directory : directories) {
+            final Path ipcFilePath = this.getIpcFilePath(options, directory);
+            if (ipcFilePath != null) {
+                return ipcFilePath;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the directories that the Discord IPC socket may be located in, in the order that they should be checked.
+     * <p>
+     * The socket may be in the root of the temporary directory. Or, there are some subdirectories of the temporary
+     * directory that it could be in (only on Unix).
+     */
+    private List<Path> getIpcDirectories(final ConnectOptions options) {
+        final Path temporaryDirectory = this.getTemporaryDirectory(options);
+        if (SystemUtil.isWindows()) {
+            return Collections.singletonList(temporaryDirectory);
+        }
+
+        final List<Path> directories = new ArrayList<>(1 + EXTRA_DISCORD_TEMP_PATHS.size());
+        directories.add(temporaryDirectory);
+        for (final String extraPath : EXTRA_DISCORD_TEMP_PATHS) {
+            directories.add(temporaryDirectory.resolve(extraPath));
+        }
+
+        return directories;
+    }
+
+    /**
+     * Returns the temporary directory that the Discord IPC socket is located in, or the directory containing named pipes
+     * on Windows.
+     */
+    private Path getTemporaryDirectory(final ConnectOptions options) {
+        final Path temporaryDirectoryOverride = options.temporaryDirectory();
         if (temporaryDirectoryOverride != null) {
-            temporaryDirectory = temporaryDirectoryOverride;
+            return temporaryDirectoryOverride;
         } else if (SystemUtil.isWindows()) {
-            temporaryDirectory = Paths.get("\\\\.\\pipe\\");
+            return Paths.get("\\\\.\\pipe\\");
         } else {
-            temporaryDirectory = SystemUtil.getTemporaryDirectory();
+            return SystemUtil.getTemporaryDirectory();
         }
+    }
 
-        // The socket may be in the root of the temporary directory. Or, there are some subdirectories of the
-        // temporary directory that it could be in (only on Unix).
-        final Stream<Path> possibleParents;
-        if (SystemUtil.isWindows()) {
-            possibleParents = Stream.of(temporaryDirectory);
-        } else {
-            possibleParents = Stream.concat(
-                Stream.of(temporaryDirectory),
-                EXTRA_DISCORD_TEMP_PATHS.stream().map(temporaryDirectory::resolve)
-            );
+    /**
+     * Returns whether the provided path is one that a Discord IPC socket would be found at with the provided options.
+     * This only compares the paths, the file system is not checked.
+     * <p>
+     * This is checked on every connection with a socket hint, so the path is taken apart instead of being compared
+     * against every path from {@link #getPossibleIpcFilePaths(ConnectOptions, Path)}.
+     */
+    private boolean isPossibleIpcFilePath(final ConnectOptions options, final Path path) {
+        final Path directory = path.getParent();
+        final Path fileName = path.getFileName();
+        if (directory == null || fileName == null || !this.isIpcDirectory(options, directory)) {
+            return false;
         }
 
-        final Path ipcFilePath = possibleParents
-            .map(it -> this.getIpcFilePath(options, it))
-            .filter(Objects::nonNull)
-            .findFirst()
-            .orElse(null);
+        final String name = fileName.toString();
+        if (!name.startsWith(IPC_FILE_PREFIX)) {
+            return false;
+        }
 
-        if (ipcFilePath != null) {
-            return ipcFilePath;
+        final String index = name.substring(IPC_FILE_PREFIX.length());
+        final Integer socketIndexOverride = options.socketIndex();
+        if (socketIndexOverride != null) {
+            return index.equals(socketIndexOverride.toString());
         }
 
-        throw new JDiscordIPCException.DiscordClientUnavailableException(null);
+        // Socket indices 0 through 9 are checked when there is no override.
+        return index.length() == 1 && index.charAt(0) >= '0' && index.charAt(0) <= '9';
+    }
+
+    /**
+     * Returns whether the provided directory is one of {@link #getIpcDirectories(ConnectOptions)}, without building
+     * the list.
+     */
+    private boolean isIpcDirectory(final ConnectOptions options, final Path directory) {
+        final Path temporaryDirectory = this.getTemporaryDirectory(options);
+        if (directory.equals(temporaryDirectory)) {
+            return true;
+        }
+
+        // The extra directories are only used on Unix, where their names use the same separator as the path.
+        return !SystemUtil.isWindows()
+            && directory.startsWith(temporaryDirectory)
+            && EXTRA_DISCORD_TEMP_PATHS.contains(temporaryDirectory.relativize(directory).toString());
+    }
+
+    /**
+     * Returns every path that a Discord IPC socket may be at in the provided directory, in the order that they should be
+     * checked. The file system is not checked.
+     * <p>
+     * If {@link ConnectOptions#socketIndex()} is non-null, then that socket index will be used. Otherwise, socket
+     * indices 0 through 9 will be used.
+     */
+    private List<Path> getPossibleIpcFilePaths(final ConnectOptions options, final Path temporaryDirectory) {
+        final Integer socketIndexOverride = options.socketIndex();
+        if (socketIndexOverride != null) {
+            return Collections.singletonList(temporaryDirectory.resolve(IPC_FILE_PREFIX + socketIndexOverride));
+        }
+
+        final List<Path> ipcFilePaths = new ArrayList<>(10);
+        for (int i = 0; i <= 9; i++) {
+            ipcFilePaths.add(temporaryDirectory.resolve(IPC_FILE_PREFIX + i));
+        }
+
+        return ipcFilePaths;
     }
 
     /**
@@ -265,23 +886,28 @@ public class JDiscordIPC implements DiscordEventListener, PacketHandler {
      * @return The path if it exists, otherwise null.
      */
     private @Nullable Path getIpcFilePath(final ConnectOptions options, final Path temporaryDirectory) {
-        final Integer socketIndexOverride = options.socketIndex();
-        if (socketIndexOverride != null) {
-            final Path ipcFile = temporaryDirectory.resolve("discord-ipc-" + socketIndexOverride);
+        for (final Path ipcFile : this.getPossibleIpcFilePaths(options, temporaryDirectory)) {
             if (Files.exists(ipcFile)) {
                 return ipcFile;
             }
-
-            return null;
         }
 
-        for (int i = 0; i <= 9; i++) {
-            final Path ipcFile = temporaryDirectory.resolve("discord-ipc-" + i);
+        return null;
+    }
+
+    /**
+     * Adds every Unix domain socket file to connect to the Discord client in the provided temporary directory to a
+     * list, in the same order that {@link #getIpcFilePath(ConnectOptions, Path)} checks them.
+     *
+     * @param options            The {@link ConnectOptions} to consider.
+     * @param temporaryDirectory The path to the temporary directory to check.
+     * @param ipcFilePaths       The list to add the paths which exist to.
+     */
+    private void collectIpcFilePaths(final ConnectOptions options, final Path temporaryDirectory, final List<Path> ipcFilePaths) {
+        for (final Path ipcFile : this.getPossibleIpcFilePaths(options, temporaryDirectory)) {
             if (Files.exists(ipcFile)) {
-                return ipcFile;
+                ipcFilePaths.add(ipcFile);
             }
         }
-
-        return null;
     }
 }
@@ -0,0 +1,207 @@
+package dev.caoimhe.jdiscordipc;
+
+import dev.caoimhe.jdiscordipc.event.DiscordEventListener;
+import dev.caoimhe.jdiscordipc.event.model.Event;
+import dev.caoimhe.jdiscordipc.event.model.ReadyEvent;
+import dev.caoimhe.jdiscordipc.exception.JDiscordIPCException;
+import dev.caoimhe.jdiscordipc.internal.util.CollectionsUtil;
+import dev.caoimhe.jdiscordipc.internal.util.SystemUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Responsible for reconnecting to the Discord client after the connection is closed, as described by a
+ * {@link ReconnectPolicy}.
+ * <p>
+ * Each attempt runs {@link JDiscordIPC#connect(ConnectOptions)} again with the options of the last connection, which
+ * looks for the Discord client's socket and sends a new handshake. Once the client is ready, the
+ * {@link dev.caoimhe.jdiscordipc.activity.ActivityManager} restores the user's activity.
+ * <p>
+ * Attempts are run by a single thread which sleeps until the next attempt is due, and which exits when no attempt is
+ * scheduled. Waiting for the Discord client to be started again costs nothing between attempts, however long it takes.
+ * With {@link SocketDiscovery#WATCH}, each attempt also waits for the Discord client's socket to be created before
+ * connecting, so attempts aren't used up while the client is not running.
+ * <p>
+ * The same thread initiates the connections of {@link JDiscordIPC#connectAsync(ConnectOptions)}.
+ */
+public class ReconnectManager implements DiscordEventListener {
+    /**
+     * The types of events that this manager handles.
+     */
+    private static final Set<Class<? extends Event>> EVENT_TYPES = CollectionsUtil.setOf(ReadyEvent.class);
+
+    /**
+     * How long the reconnect thread waits for another attempt to be scheduled before exiting.
+     */
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 10;
+
+    /**
+     * The {@link JDiscordIPC} instance that this manager is for.
+     */
+    private final JDiscordIPC jDiscordIPC;
+
+    private final ReconnectPolicy policy;
+
+    /**
+     * Runs reconnect attempts once their delay has passed.
+     */
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * The next reconnect attempt, if one is scheduled. This is guarded by the lock on this manager.
+     */
+    private @Nullable ScheduledFuture<?> scheduledAttempt;
+
+    /**
+     * The number of attempts made since the last connection reached the ready state. This is guarded by the lock on this
+     * manager.
+     */
+    private int attempt;
+
+    private final AtomicLong attemptCount;
+    private final AtomicLong reconnectCount;
+
+    /**
+     * Initializes a new {@link ReconnectManager} instance.
+     *
+     * @param jDiscordIPC The {@link JDiscordIPC} instance that this manager is for.
+     * @param policy      Determines when reconnect attempts are made.
+     */
+    public ReconnectManager(final JDiscordIPC jDiscordIPC, final ReconnectPolicy policy) {
+        this.policy = policy;
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "JDiscordIPC-Reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setKeepAliveTime(THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        this.executor.allowCoreThreadTimeOut(true);
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.scheduledAttempt = null;
+        this.attempt = 0;
+        this.attemptCount = new AtomicLong();
+        this.reconnectCount = new AtomicLong();
+
+        this.jDiscordIPC = jDiscordIPC;
+        this.jDiscordIPC.registerEventListener(this);
+    }
+
+    /**
+     * Schedules the next reconnect attempt, unless one is already scheduled.
+     *
+     * @param options The options to connect with.
+     * @return Whether an attempt is scheduled, this is false if the {@link ReconnectPolicy} has given up.
+     */
+    public synchronized boolean scheduleReconnect(final ConnectOptions options) {
+        if (this.scheduledAttempt != null) {
+            return true;
+        }
+
+        final Duration delay = this.policy.delayBeforeAttempt(this.attempt + 1);
+        if (delay == null) {
+            return false;
+        }
+
+        this.attempt++;
+        this.scheduledAttempt = this.executor.schedule(() -> this.reconnect(options), delay.toNanos(), TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    /**
+     * Cancels the next reconnect attempt, if one is scheduled.
+     */
+    public synchronized void cancel() {
+        if (this.scheduledAttempt != null) {
+            // The attempt may be waiting for the socket to be created, which is interrupted. Once it starts connecting,
+            // it is no longer the scheduled attempt.
+            this.scheduledAttempt.cancel(true);
+            this.scheduledAttempt = null;
+        }
+    }
+
+    /**
+     * Runs a task on the thread which makes reconnect attempts, once any attempt which is being made has finished. This
+     * is used by {@link JDiscordIPC#connectAsync(ConnectOptions)}, so that connections are only made by one thread.
+     */
+    void execute(final Runnable task) {
+        this.executor.execute(task);
+    }
+
+    /**
+     * Returns the total number of reconnect attempts which have been made.
+     */
+    public long attemptCount() {
+        return this.attemptCount.get();
+    }
+
+    /**
+     * Returns the number of times that a reconnect attempt resulted in a connection which reached the ready state.
+     */
+    public long reconnectCount() {
+        return this.reconnectCount.get();
+    }
+
+    @Override
+    public Set<Class<? extends Event>> eventTypes() {
+        return EVENT_TYPES;
+    }
+
+    @Override
+    public void onReadyEvent(final ReadyEvent event) {
+        // The connection is usable again, if it is closed later on the policy starts over from the first attempt.
+        synchronized (this) {
+            if (this.attempt != 0) {
+                this.reconnectCount.incrementAndGet();
+            }
+
+            this.attempt = 0;
+        }
+    }
+
+    /**
+     * Called by the executor once a reconnect attempt is due.
+     */
+    private void reconnect(final ConnectOptions options) {
+        if (options.socketDiscovery() == SocketDiscovery.WATCH && !SystemUtil.isWindows() && SocketWatcher.isNativeWatchingSupported()) {
+            try {
+                this.jDiscordIPC.awaitIpcFilePath(options);
+            } catch (final InterruptedException e) {
+                // The attempt was cancelled.
+                return;
+            } catch (final IOException e) {
+                // Connecting will find out whether the socket exists, the same as when polling.
+                System.err.println("Failed to watch for the Discord client's socket to be created: " + e);
+            }
+        }
+
+        synchronized (this) {
+            // If the attempt was cancelled while waiting, something else is connecting instead.
+            if (this.scheduledAttempt == null) {
+                return;
+            }
+
+            this.scheduledAttempt = null;
+        }
+
+        // A cancellation which raced with the check above must not interrupt the connection.
+        Thread.interrupted();
+
+        this.attemptCount.incrementAndGet();
+
+        try {
+            this.jDiscordIPC.establishConnection(options);
+        } catch (final JDiscordIPCException.DiscordClientUnavailableException e) {
+            // The Discord client is most likely still not running, we'll try again later.
+            if (!this.scheduleReconnect(options)) {
+                System.err.println("Failed to reconnect to the Discord client, giving up as the reconnect policy does not allow another attempt.");
+            }
+        }
+    }
+}
@@ -1,13 +1,106 @@
 package dev.caoimhe.jdiscordipc;
 
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Determines how the {@link JDiscordIPC} should re-connect to the Discord client after its connection is closed.
+ * <p>
+ * Reconnect attempts are made by a {@link ReconnectManager}. Each attempt looks for the Discord client's socket again,
+ * so a client which was restarted is found even if it is now listening on a different socket.
  *
  * @see dev.caoimhe.jdiscordipc.builder.JDiscordIPCBuilder#reconnectPolicy(ReconnectPolicy)
  */
-public enum ReconnectPolicy {
+@FunctionalInterface
+public interface ReconnectPolicy {
     /**
      * Don't reconnect under any circumstances.
      */
-    NEVER;
+    ReconnectPolicy NEVER = attempt -> null;
+
+    /**
+     * Returns how long to wait before making a reconnect attempt.
+     *
+     * @param attempt The number of the attempt, starting at 1 for the first attempt after the connection was closed. This
+     *                is reset once a connection reaches the ready state.
+     * @return The delay before making the attempt, or null to stop trying to reconnect.
+     */
+    @Nullable Duration delayBeforeAttempt(final int attempt);
+
+    /**
+     * Returns a policy which waits the same amount of time before every attempt, and never stops trying to reconnect.
+     *
+     * @param delay The delay before each attempt.
+     */
+    static ReconnectPolicy fixed(final Duration delay) {
+        if (delay.isNegative()) {
+            throw new IllegalArgumentException("delay must not be negative");
+        }
+
+        return attempt -> delay;
+    }
+
+    /**
+     * Returns a policy which doubles the delay after every attempt, up to a maximum, with half of each delay being
+     * random. This never stops trying to reconnect.
+     *
+     * @param initialDelay The delay before the first attempt.
+     * @param maximumDelay The longest delay between two attempts.
+     * @see #exponentialBackoff(Duration, Duration, double)
+     */
+    static ReconnectPolicy exponentialBackoff(final Duration initialDelay, final Duration maximumDelay) {
+        return ReconnectPolicy.exponentialBackoff(initialDelay, maximumDelay, 0.5);
+    }
+
+    /**
+     * Returns a policy which doubles the delay after every attempt, up to a maximum. This never stops trying to
+     * reconnect.
+     * <p>
+     * Each delay is reduced by a random fraction of itself (up to {@code jitter}), so that many clients which lost their
+     * connection at the same time (e.g. when the Discord client restarts) don't all reconnect at the same moment.
+     *
+     * @param initialDelay The delay before the first attempt.
+     * @param maximumDelay The longest delay between two attempts.
+     * @param jitter       The largest fraction of each delay which may be randomly removed, between 0 and 1.
+     */
+    static ReconnectPolicy exponentialBackoff(final Duration initialDelay, final Duration maximumDelay, final double jitter) {
+        if (initialDelay.isNegative() || initialDelay.isZero()) {
+            throw new IllegalArgumentException("initialDelay must be positive");
+        }
+
+        if (maximumDelay.compareTo(initialDelay) < 0) {
+            throw new IllegalArgumentException("maximumDelay must not be less than initialDelay");
+        }
+
+        if (!(jitter >= 0 && jitter <= 1)) {
+            throw new IllegalArgumentException("jitter must be between 0 and 1");
+        }
+
+        final long initialDelayNanos = initialDelay.toNanos();
+        final long maximumDelayNanos = maximumDelay.toNanos();
+
+        return attempt -> {
+            // Once the delay would be larger than the maximum, there's no point in doubling it any further.
+            final int doublings = Math.min(attempt - 1, Long.numberOfLeadingZeros(initialDelayNanos) - 1);
+            final long delayNanos = Math.min(initialDelayNanos << Math.max(doublings, 0), maximumDelayNanos);
+
+            final double jitterNanos = delayNanos * jitter * ThreadLocalRandom.current().nextDouble();
+            return Duration.ofNanos(delayNanos - (long) jitterNanos);
+        };
+    }
+
+    /**
+     * Returns a policy which behaves like this one, but stops trying to reconnect after a number of attempts.
+     *
+     * @param maxAttempts The number of attempts to make before giving up, each time the connection is closed.
+     */
+    default ReconnectPolicy withMaxAttempts(final int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive");
+        }
+
+        return attempt -> attempt > maxAttempts ? null : this.delayBeforeAttempt(attempt);
+    }
 }
@@ -0,0 +1,26 @@
+package dev.caoimhe.jdiscordipc;
+
+/**
+ * Determines how {@link JDiscordIPC} waits for the Discord client's IPC socket to appear while reconnecting.
+ *
+ * @see ConnectOptions.Builder#socketDiscovery(SocketDiscovery)
+ * @see ReconnectPolicy
+ */
+public enum SocketDiscovery {
+    /**
+     * Each reconnect attempt checks whether the socket exists, and the {@link ReconnectPolicy} decides when the next
+     * check is made.
+     */
+    POLL,
+
+    /**
+     * Each reconnect attempt waits for the socket to be created, using a {@link java.nio.file.WatchService} on the
+     * directories that it may be created in. Nothing is checked while the Discord client is not running (other than
+     * when something named like a socket is created), and the attempt is made as soon as the socket appears.
+     * <p>
+     * On Windows, the socket is a named pipe, which can't be watched. Some JDKs (e.g. on macOS) don't have native file
+     * watching, and only provide a {@link java.nio.file.WatchService} which polls the directories every 10 seconds.
+     * This behaves like {@link #POLL} on both.
+     */
+    WATCH;
+}
@@ -0,0 +1,110 @@
+package dev.caoimhe.jdiscordipc;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Remembers the path of the last Discord IPC socket that was connected to, so that the next connection can try it
+ * before looking for the socket again.
+ * <p>
+ * If {@link ConnectOptions#persistSocketHint()} is enabled, the path is also written to a file, so that it can be used
+ * by the next run of the application.
+ */
+class SocketPathHint {
+    /**
+     * The prefix of the name of the file that the hint is persisted to, see {@link #fileName(long)}.
+     */
+    static final String FILE_NAME_PREFIX = "jdiscordipc-socket-hint-";
+
+    /**
+     * The path of the last socket that was connected to, or null if there isn't one.
+     */
+    private volatile @Nullable Path path;
+
+    /**
+     * Whether the persisted hint has been read. It only needs to be read once, after that {@link #path} is kept up to
+     * date.
+     */
+    private volatile boolean loaded;
+
+    SocketPathHint() {
+        this.path = null;
+        this.loaded = false;
+    }
+
+    /**
+     * Returns the name of the file that the hint is persisted to.
+     * <p>
+     * The temporary directory may be shared by every user (e.g. {@code /tmp}), and by every application using
+     * JDiscordIPC, so the name includes both the user's name and the client ID.
+     *
+     * @param clientId The client ID of the application.
+     */
+    static String fileName(final long clientId) {
+        final String userName = System.getProperty("user.name", "");
+        return FILE_NAME_PREFIX + userName.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + clientId;
+    }
+
+    /**
+     * Returns the path of the last socket that was connected to, reading the persisted hint if necessary.
+     *
+     * @param hintFile The file that the hint is persisted to, or null if it is not persisted.
+     */
+    @Nullable Path get(final @Nullable Path hintFile) {
+        final Path path = this.path;
+        if (path != null || hintFile == null || this.loaded) {
+            return path;
+        }
+
+        this.loaded = true;
+
+        try {
+            final String persisted = new String(Files.readAllBytes(hintFile), StandardCharsets.UTF_8).trim();
+            if (!persisted.isEmpty()) {
+                this.path = Paths.get(persisted);
+            }
+        } catch (final NoSuchFileException e) {
+            // Nothing has been persisted yet.
+        } catch (final IOException | InvalidPathException e) {
+            System.err.println("Failed to read the Discord IPC socket hint: " + e);
+        }
+
+        return this.path;
+    }
+
+    /**
+     * Remembers the path of a socket which was connected to.
+     *
+     * @param path     The path of the socket.
+     * @param hintFile The file to persist the hint to, or null if it should not be persisted.
+     */
+    void remember(final Path path, final @Nullable Path hintFile) {
+        final Path previousPath = this.path;
+        this.path = path;
+
+        // The file only needs to be written when the socket has moved.
+        if (hintFile == null || path.equals(previousPath)) {
+            return;
+        }
+
+        try {
+            Files.write(hintFile, path.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            System.err.println("Failed to persist the Discord IPC socket hint: " + e);
+        }
+    }
+
+    /**
+     * Forgets the remembered path, as it could not be connected to.
+     */
+    void forget() {
+        this.path = null;
+    }
+}
@@ -0,0 +1,178 @@
+package dev.caoimhe.jdiscordipc;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Waits for the Discord client to create its IPC socket, see {@link SocketDiscovery#WATCH}.
+ * <p>
+ * Each directory that the socket may be created in is watched for new entries. Directories which don't exist yet (e.g.
+ * the Flatpak directory, before Discord has been started for the first time) are watched through their closest parent
+ * within the temporary directory, and are watched themselves once they are created.
+ * <p>
+ * The directories are only checked again when something that could be the socket (or one of the directories) is
+ * created, other files being created in the temporary directory are ignored.
+ * <p>
+ * Some JDKs (e.g. on macOS) don't have native file watching, and their {@link WatchService} polls every directory
+ * itself, which would find the socket up to 10 seconds late. See {@link #isNativeWatchingSupported()}.
+ */
+class SocketWatcher {
+    private final Path temporaryDirectory;
+    private final List<Path> directories;
+
+    /**
+     * Returns the path of a socket which exists, or null if there isn't one.
+     */
+    private final Supplier<@Nullable Path> locator;
+
+    /**
+     * Initializes a new {@link SocketWatcher}.
+     *
+     * @param temporaryDirectory The temporary directory, nothing outside of this is watched.
+     * @param directories        The directories that the socket may be created in.
+     * @param locator            Returns the path of a socket which exists, or null if there isn't one.
+     */
+    SocketWatcher(final Path temporaryDirectory, final List<Path> directories, final Supplier<@Nullable Path> locator) {
+        this.temporaryDirectory = temporaryDirectory;
+        this.directories = directories;
+        this.locator = locator;
+    }
+
+    /**
+     * Returns whether the JDK's {@link WatchService} is backed by the operating system's file watching, rather than a
+     * thread which polls the watched directories.
+     */
+    static boolean isNativeWatchingSupported() {
+        return NativeWatchingSupport.SUPPORTED;
+    }
+
+    /**
+     * Blocks until a socket exists in one of the directories, returning immediately if one already does.
+     *
+     * @return The path of the socket.
+     * @throws IOException          If the directories could not be watched.
+     * @throws InterruptedException If the thread was interrupted while waiting.
+     */
+    Path await() throws IOException, InterruptedException {
+        try (final WatchService watchService = this.temporaryDirectory.getFileSystem().newWatchService()) {
+            final Set<Path> watchedDirectories = new HashSet<>();
+
+            while (true) {
+                // Anything which was created before its directory was being watched would be missed, so the directories
+                // are checked after (re-)registering them.
+                this.register(watchService, watchedDirectories);
+
+                final Path socket = this.locator.get();
+                if (socket != null) {
+                    return socket;
+                }
+
+                this.awaitRelevantEvent(watchService, watchedDirectories);
+            }
+        }
+    }
+
+    /**
+     * Blocks until something which could be the socket, or one of the directories that it may be created in, is
+     * created. Anything else which is created is ignored.
+     */
+    private void awaitRelevantEvent(final WatchService watchService, final Set<Path> watchedDirectories) throws InterruptedException {
+        while (true) {
+            final WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (final ClosedWatchServiceException e) {
+                throw new InterruptedException();
+            }
+
+            final Path directory = (Path) key.watchable();
+            boolean relevant = false;
+            for (final WatchEvent<?> event : key.pollEvents()) {
+                relevant |= this.isRelevant(directory, event);
+            }
+
+            // A directory which was deleted has to be watched through its parent again.
+            if (!key.reset()) {
+                watchedDirectories.remove(directory);
+                relevant = true;
+            }
+
+            if (relevant) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns whether an event could mean that the socket now exists, i.e. something named like a socket or one of the
+     * directories that it may be created in was created. If events were lost, it has to be assumed that it could.
+     */
+    private boolean isRelevant(final Path directory, final WatchEvent<?> event) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            return true;
+        }
+
+        final Path created = directory.resolve((Path) event.context());
+        if (created.getFileName().toString().startsWith(JDiscordIPC.IPC_FILE_PREFIX)) {
+            return true;
+        }
+
+        for (final Path socketDirectory : this.directories) {
+            if (socketDirectory.startsWith(created)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Watches every directory that the socket may be created in, or its closest existing parent.
+     */
+    private void register(final WatchService watchService, final Set<Path> watchedDirectories) throws IOException {
+        for (final Path directory : this.directories) {
+            Path watched = directory;
+            while (!Files.isDirectory(watched) && !watched.equals(this.temporaryDirectory)) {
+                final Path parent = watched.getParent();
+                if (parent == null || !parent.startsWith(this.temporaryDirectory)) {
+                    break;
+                }
+
+                watched = parent;
+            }
+
+            if (Files.isDirectory(watched) && watchedDirectories.add(watched)) {
+                watched.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+            }
+        }
+    }
+
+    /**
+     * Checks whether native file watching is supported the first time that it's needed.
+     */
+    private static class NativeWatchingSupport {
+        private static final boolean SUPPORTED = check();
+
+        private static boolean check() {
+            try (final WatchService watchService = FileSystems.getDefault().newWatchService()) {
+                // This is the implementation that the JDK falls back to, sun.nio.fs.PollingWatchService.
+                return !watchService.getClass().getSimpleName().equals("PollingWatchService");
+            } catch (final IOException | UnsupportedOperationException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package dev.caoimhe.jdiscordipc;
+
+import dev.caoimhe.jdiscordipc.socket.SystemSocket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * A {@link SystemSocket} which passes everything through to another socket, which can be swapped out.
+ * <p>
+ * This allows the {@link dev.caoimhe.jdiscordipc.packet.PacketManager} to adopt the probe connection which won a
+ * {@link ConnectionRace}, instead of connecting again. The socket that is swapped in must support the same kinds of
+ * buffers and reads as the one it replaces (see {@link #supportsDirectBuffers()}), as the packet codec only checks them
+ * once.
+ */
+class SwappableSystemSocket implements SystemSocket {
+    private volatile SystemSocket delegate;
+
+    /**
+     * Initializes a new {@link SwappableSystemSocket}.
+     *
+     * @param delegate The socket to pass everything through to, until another is swapped in.
+     */
+    SwappableSystemSocket(final SystemSocket delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Replaces the socket that everything is passed through to.
+     *
+     * @param delegate The socket to use from now on.
+     * @return The socket which was replaced, this is not closed.
+     */
+    SystemSocket swap(final SystemSocket delegate) {
+        final SystemSocket previous = this.delegate;
+        this.delegate = delegate;
+        return previous;
+    }
+
+    @Override
+    public void connect(final Path domainSocketPath) throws IOException {
+        this.delegate.connect(domainSocketPath);
+    }
+
+    @Override
+    public boolean readFully(final ByteBuffer byteBuffer) throws IOException {
+        return this.delegate.readFully(byteBuffer);
+    }
+
+    @Override
+    public int read(final ByteBuffer byteBuffer) throws IOException {
+        return this.delegate.read(byteBuffer);
+    }
+
+    @Override
+    public void write(final ByteBuffer byteBuffer) throws IOException {
+        this.delegate.write(byteBuffer);
+    }
+
+    @Override
+    public void write(final ByteBuffer... byteBuffers) throws IOException {
+        this.delegate.write(byteBuffers);
+    }
+
+    @Override
+    public boolean supportsDirectBuffers() {
+        return this.delegate.supportsDirectBuffers();
+    }
+
+    @Override
+    public boolean supportsPartialReads() {
+        return this.delegate.supportsPartialReads();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return this.delegate.isConnected();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.delegate.close();
+    }
+}
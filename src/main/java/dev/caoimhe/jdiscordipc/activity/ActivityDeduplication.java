@@ -0,0 +1,28 @@
+package dev.caoimhe.jdiscordipc.activity;
+
+/**
+ * Determines how {@link ActivityManager} decides that an activity update is the same as the activity which was last
+ * sent to the Discord client, in which case it is not sent again.
+ *
+ * @see dev.caoimhe.jdiscordipc.builder.JDiscordIPCBuilder#activityDeduplication(ActivityDeduplication)
+ */
+public enum ActivityDeduplication {
+    /**
+     * Every activity update is sent, even if it is the same as the last one.
+     */
+    NONE,
+
+    /**
+     * An activity update is not sent if it is {@link Object#equals(Object) equal} to the last one. This is cheap, as
+     * activities cache their hash code.
+     */
+    EQUALITY,
+
+    /**
+     * An activity update is not sent if its serialized payload has the same digest as the last one's.
+     * <p>
+     * This serializes every update, but also catches activities which are not equal but would be sent to the Discord
+     * client as the same payload (e.g. instances of a subclass of {@link dev.caoimhe.jdiscordipc.activity.model.Activity}).
+     */
+    PAYLOAD_DIGEST
+}
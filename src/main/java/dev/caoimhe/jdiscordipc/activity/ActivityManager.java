@@ -4,17 +4,49 @@ import dev.caoimhe.jdiscordipc.JDiscordIPC;
 import dev.caoimhe.jdiscordipc.JDiscordIPCState;
 import dev.caoimhe.jdiscordipc.activity.model.Activity;
 import dev.caoimhe.jdiscordipc.activity.model.ActivityBuilder;
+import dev.caoimhe.jdiscordipc.activity.model.TemplatedActivity;
 import dev.caoimhe.jdiscordipc.event.DiscordEventListener;
+import dev.caoimhe.jdiscordipc.event.model.Event;
 import dev.caoimhe.jdiscordipc.event.model.ReadyEvent;
 import dev.caoimhe.jdiscordipc.packet.PacketManager;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.IncomingFramePacket;
+import dev.caoimhe.jdiscordipc.packet.codec.PacketCodec;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.outgoing.EncodedSetActivityRequestPacket;
 import dev.caoimhe.jdiscordipc.packet.impl.frame.outgoing.SetActivityRequestPacket;
+import dev.caoimhe.jdiscordipc.internal.util.CollectionsUtil;
+import dev.caoimhe.jdiscordipc.internal.util.HashedTimingWheel;
 import dev.caoimhe.jdiscordipc.internal.util.SystemUtil;
+import dev.caoimhe.jdiscordipc.internal.util.SlidingWindowRateLimiter;
 import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Responsible for setting the current user's activity once {@link ReadyEvent} is emitted.
+ * <p>
+ * The Discord client only accepts a few activity updates at a time (see {@link ActivityRateLimit#DISCORD}), and drops
+ * the rest. Updates made faster than the {@link ActivityRateLimit} are coalesced: the latest activity is sent once the
+ * rate limit allows it, and any updates in between are never sent.
+ * <p>
+ * An update which is the same as the activity that was last sent is not sent again, see {@link ActivityDeduplication}.
+ * Activities are serialized through an {@link ActivityPayloadCache}, so that switching back to a recent activity does
+ * not serialize it again. Activities created from an {@link dev.caoimhe.jdiscordipc.activity.model.ActivityTemplate}
+ * skip the cache, only their slots are serialized for each update.
  */
 public class ActivityManager implements DiscordEventListener {
+    /**
+     * The types of events that this manager handles.
+     */
+    private static final Set<Class<? extends Event>> EVENT_TYPES = CollectionsUtil.setOf(ReadyEvent.class);
+
     /**
      * The {@link JDiscordIPC} instance that this manager is for.
      */
@@ -31,18 +63,98 @@ public class ActivityManager implements DiscordEventListener {
      * When {@link ReadyEvent} is emitted, this will be set. This ensures that {@link #updateActivity} calls can be
      * queued, and also ensures that the user's activity is restored when reconnecting to Discord.
      */
-    private @Nullable Activity currentActivity;
+    private volatile @Nullable Activity currentActivity;
 
     /**
-     * Initializes a new {@link ActivityManager} instance.
+     * Limits how often activity updates are sent. This is guarded by the lock on this manager.
+     */
+    private final SlidingWindowRateLimiter updateRateLimiter;
+
+    /**
+     * Sends the latest activity once the rate limit allows it.
+     */
+    private final HashedTimingWheel updateTimer;
+
+    /**
+     * The pending send of the latest activity, if an update was made while the rate limit did not allow it to be sent.
+     * This is guarded by the lock on this manager.
+     */
+    private HashedTimingWheel.@Nullable Timeout scheduledUpdate;
+
+    private final AtomicLong collapsedUpdateCount;
+
+    /**
+     * How an update is compared with the activity that was last sent.
+     */
+    private final ActivityDeduplication deduplication;
+
+    /**
+     * The activity that was last sent, which has either been acknowledged by the Discord client or is still waiting for
+     * a response. This is null if nothing has been sent on the current connection, or if the last request failed. This
+     * is guarded by the lock on this manager.
+     */
+    private @Nullable SentActivity lastSentActivity;
+
+    /**
+     * Used to compute payload digests for {@link ActivityDeduplication#PAYLOAD_DIGEST}. This is guarded by the lock on
+     * this manager.
+     */
+    private @Nullable MessageDigest payloadDigest;
+
+    private final AtomicLong skippedUpdateCount;
+
+    /**
+     * The serialized form of recently sent activities.
+     */
+    private final ActivityPayloadCache payloadCache;
+
+    /**
+     * Initializes a new {@link ActivityManager} instance, which sends updates at the rate of
+     * {@link ActivityRateLimit#DISCORD}.
      *
      * @param jDiscordIPC   The {@link JDiscordIPC} instance that this manager is for.
      * @param packetManager The {@link PacketManager} instance to send packets with.
      */
     public ActivityManager(final JDiscordIPC jDiscordIPC, final PacketManager packetManager) {
+        this(
+            jDiscordIPC,
+            packetManager,
+            ActivityRateLimit.DISCORD,
+            ActivityDeduplication.EQUALITY,
+            new HashedTimingWheel("JDiscordIPC-Activity-Updates")
+        );
+    }
+
+    /**
+     * Initializes a new {@link ActivityManager} instance.
+     *
+     * @param jDiscordIPC   The {@link JDiscordIPC} instance that this manager is for.
+     * @param packetManager The {@link PacketManager} instance to send packets with.
+     * @param rateLimit     The rate that activity updates are sent at.
+     * @param deduplication How an update is compared with the activity that was last sent, to avoid sending it again.
+     * @param updateTimer   Sends the latest activity once the rate limit allows it. This may be shared with other users
+     *                      of the wheel.
+     */
+    public ActivityManager(
+        final JDiscordIPC jDiscordIPC,
+        final PacketManager packetManager,
+        final ActivityRateLimit rateLimit,
+        final ActivityDeduplication deduplication,
+        final HashedTimingWheel updateTimer
+    ) {
         this.currentActivity = null;
         this.packetManager = packetManager;
 
+        this.updateRateLimiter = new SlidingWindowRateLimiter(rateLimit.updates(), rateLimit.period().toNanos());
+        this.updateTimer = updateTimer;
+        this.scheduledUpdate = null;
+        this.collapsedUpdateCount = new AtomicLong();
+        this.deduplication = deduplication;
+        this.lastSentActivity = null;
+        this.payloadDigest = null;
+        this.skippedUpdateCount = new AtomicLong();
+        this.payloadCache = new ActivityPayloadCache();
+
         this.jDiscordIPC = jDiscordIPC;
         this.jDiscordIPC.registerEventListener(this);
     }
@@ -52,6 +164,12 @@ public class ActivityManager implements DiscordEventListener {
      * <p>
      * If {@link JDiscordIPC#connect()} has not been called, this will queue the {@link Activity} to be set once the
      * Discord client has connected (i.e. once {@link ReadyEvent} is dispatched).
+     * <p>
+     * If the {@link ActivityRateLimit} does not allow an update to be sent yet, the activity will be sent once it does.
+     * Only the latest activity is sent, so an activity that is replaced before then is never sent.
+     * <p>
+     * If the activity is the same as the one which was last sent (see {@link ActivityDeduplication}), it is not sent
+     * again.
      *
      * @param activity The activity to set on the user's profile. If null, the current activity belonging to this
      *                 application instance will be removed from the user's profile
@@ -65,26 +183,198 @@ public class ActivityManager implements DiscordEventListener {
         // set once it reaches the ready state.
         if (this.jDiscordIPC.state() != JDiscordIPCState.READY) return;
 
-        // The client is currently in a ready state, we can send the activity packet now.
-        this.sendActivityPacket();
+        // The client is currently in a ready state, we can send the activity packet as soon as the rate limit allows.
+        this.scheduleActivityPacket(true);
+    }
+
+    /**
+     * Returns the number of activity updates which were never sent, as a newer update replaced them while waiting for
+     * the rate limit.
+     */
+    public long collapsedUpdateCount() {
+        return this.collapsedUpdateCount.get();
+    }
+
+    /**
+     * Returns the number of activity updates which were not sent, as they were the same as the activity that was last
+     * sent.
+     */
+    public long skippedUpdateCount() {
+        return this.skippedUpdateCount.get();
+    }
+
+    /**
+     * Returns the cache of serialized activities, which is mostly useful for inspecting statistics like
+     * {@link ActivityPayloadCache#hitCount()}.
+     */
+    public ActivityPayloadCache payloadCache() {
+        return this.payloadCache;
+    }
+
+    @Override
+    public Set<Class<? extends Event>> eventTypes() {
+        return EVENT_TYPES;
     }
 
     @Override
     public void onReadyEvent(final ReadyEvent event) {
         // When the Discord client informs us that it is ready for communication, we can set the user's current
-        // activity to the latest cached one.
-        this.sendActivityPacket();
+        // activity to the latest cached one. This is a new connection, so nothing has been sent on it yet.
+        synchronized (this) {
+            this.lastSentActivity = null;
+        }
+
+        // This is called on the thread reading packets, which must never block on a full outgoing packet queue.
+        this.scheduleActivityPacket(false);
+    }
+
+    /**
+     * Sends the activity for the current user now if the rate limit allows it, or schedules it to be sent once it does.
+     *
+     * @param mayBlock Whether this thread may block if the outgoing packet queue is full, see
+     *                 {@link dev.caoimhe.jdiscordipc.BackpressurePolicy#BLOCK}. This must be false on the library's own
+     *                 threads, where the activity is dropped instead.
+     */
+    private void scheduleActivityPacket(final boolean mayBlock) {
+        final SentActivity sentActivity;
+        synchronized (this) {
+            // If a send is already scheduled, it will send the latest activity, replacing the one it was scheduled for.
+            if (this.scheduledUpdate != null) {
+                this.collapsedUpdateCount.incrementAndGet();
+                return;
+            }
+
+            sentActivity = this.createSentActivity(this.currentActivity);
+            if (this.lastSentActivity != null && this.lastSentActivity.matches(sentActivity, this.deduplication)) {
+                this.skippedUpdateCount.incrementAndGet();
+                return;
+            }
+
+            final long delayNanos = this.updateRateLimiter.tryAcquire(System.nanoTime());
+            if (delayNanos != 0) {
+                this.scheduledUpdate = this.updateTimer.schedule(this::sendScheduledActivityPacket, delayNanos, TimeUnit.NANOSECONDS);
+                return;
+            }
+
+            this.lastSentActivity = sentActivity;
+        }
+
+        this.sendActivityPacket(sentActivity, mayBlock);
+    }
+
+    /**
+     * Called by the update timer once the rate limit should allow the latest activity to be sent.
+     */
+    private void sendScheduledActivityPacket() {
+        synchronized (this) {
+            this.scheduledUpdate = null;
+        }
+
+        // If the connection was lost in the meantime, the activity will be sent once the client is ready again.
+        if (this.jDiscordIPC.state() != JDiscordIPCState.READY) return;
+
+        // This is called on the timer thread, which also times out requests, so it must never block.
+        this.scheduleActivityPacket(false);
+    }
+
+    /**
+     * Sends an activity for the current user as a packet to the Discord client.
+     */
+    private void sendActivityPacket(final SentActivity sentActivity, final boolean mayBlock) {
+        final SetActivityRequestPacket requestPacket = this.createRequestPacket(sentActivity.activity);
+        final CompletableFuture<IncomingFramePacket<?>> request = mayBlock
+            ? this.packetManager.sendRequest(requestPacket)
+            : this.packetManager.trySendRequest(requestPacket);
+
+        // If the request fails, the Discord client may not be showing the activity, so the next update must be sent.
+        request.whenComplete((response, throwable) -> {
+            if (throwable == null) return;
+
+            synchronized (this) {
+                if (this.lastSentActivity == sentActivity) {
+                    this.lastSentActivity = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates the packet to send an activity with, using its cached serialized form if possible.
+     */
+    private SetActivityRequestPacket createRequestPacket(final @Nullable Activity activity) {
+        final long processId = SystemUtil.getProcessId();
+        if (activity != null) {
+            try {
+                return new EncodedSetActivityRequestPacket(processId, activity, this.encode(activity));
+            } catch (final IOException e) {
+                // Jackson can try again when the packet is written, and report the error then.
+            }
+        }
+
+        return new SetActivityRequestPacket(new SetActivityRequestPacket.Arguments(processId, activity));
+    }
+
+    /**
+     * Returns the serialized form of an activity. Templated activities are already cheap to encode, and each one is
+     * usually only sent once, so they are not put in the {@link #payloadCache}.
+     */
+    private byte[] encode(final Activity activity) throws IOException {
+        if (activity instanceof TemplatedActivity) {
+            return ((TemplatedActivity) activity).encode();
+        }
+
+        return this.payloadCache.encode(activity);
+    }
+
+    /**
+     * Captures an activity to be sent, computing its payload digest if it is needed. The caller must hold the lock on
+     * this manager.
+     */
+    private SentActivity createSentActivity(final @Nullable Activity activity) {
+        if (this.deduplication != ActivityDeduplication.PAYLOAD_DIGEST) {
+            return new SentActivity(activity, null);
+        }
+
+        try {
+            if (this.payloadDigest == null) {
+                this.payloadDigest = MessageDigest.getInstance("SHA-256");
+            }
+
+            final byte[] payload = activity != null ? this.encode(activity) : PacketCodec.serialize(null);
+            return new SentActivity(activity, this.payloadDigest.digest(payload));
+        } catch (final IOException | NoSuchAlgorithmException e) {
+            // Without a digest, the activity is never considered to be the same as another, so it will still be sent.
+            System.err.println("Failed to compute the payload digest of an activity: " + e);
+            return new SentActivity(activity, null);
+        }
     }
 
     /**
-     * Sends the activity for the current user as a packet to the Discord client.
+     * An activity which has been sent, or is about to be sent, to the Discord client.
      */
-    private void sendActivityPacket() {
-        final SetActivityRequestPacket requestPacket = new SetActivityRequestPacket(new SetActivityRequestPacket.Arguments(
-            SystemUtil.getProcessId(),
-            this.currentActivity
-        ));
+    private static class SentActivity {
+        private final @Nullable Activity activity;
+        private final byte @Nullable [] payloadDigest;
+
+        private SentActivity(final @Nullable Activity activity, final byte @Nullable [] payloadDigest) {
+            this.activity = activity;
+            this.payloadDigest = payloadDigest;
+        }
+
+        /**
+         * Returns whether sending the other activity would be the same as sending this one.
+         */
+        private boolean matches(final SentActivity other, final ActivityDeduplication deduplication) {
+            switch (deduplication) {
+                case EQUALITY:
+                    return Objects.equals(this.activity, other.activity);
+
+                case PAYLOAD_DIGEST:
+                    return this.payloadDigest != null && Arrays.equals(this.payloadDigest, other.payloadDigest);
 
-        this.packetManager.sendPacket(requestPacket, (response) -> {});
+                default:
+                    return false;
+            }
+        }
     }
 }
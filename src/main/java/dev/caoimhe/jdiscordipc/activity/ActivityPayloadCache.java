@@ -0,0 +1,117 @@
+package dev.caoimhe.jdiscordipc.activity;
+
+import dev.caoimhe.jdiscordipc.activity.model.Activity;
+import dev.caoimhe.jdiscordipc.packet.codec.PacketCodec;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A least-recently-used cache of serialized activities.
+ * <p>
+ * Applications often switch between a small number of activities (e.g. a main menu, a lobby and a match). Caching the
+ * serialized form of each means that switching back to one only has to copy its bytes, see
+ * {@link dev.caoimhe.jdiscordipc.packet.impl.frame.outgoing.EncodedSetActivityRequestPacket}.
+ * <p>
+ * Activities are keyed by {@link Activity#equals(Object)}, so an activity that is built again with the same values is
+ * still found in the cache.
+ */
+public class ActivityPayloadCache {
+    /**
+     * The default number of activities to keep in the cache.
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The serialized activities, in order of least to most recently used. This is guarded by the lock on this cache.
+     */
+    private final LinkedHashMap<Activity, byte[]> entries;
+
+    private final int capacity;
+    private final AtomicLong hitCount;
+    private final AtomicLong missCount;
+
+    /**
+     * Initializes a new {@link ActivityPayloadCache} with a capacity of {@link #DEFAULT_CAPACITY}.
+     */
+    public ActivityPayloadCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Initializes a new {@link ActivityPayloadCache}.
+     *
+     * @param capacity The number of activities to keep in the cache.
+     */
+    public ActivityPayloadCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        this.entries = new LinkedHashMap<Activity, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Activity, byte[]> eldest) {
+                return this.size() > ActivityPayloadCache.this.capacity;
+            }
+        };
+        this.capacity = capacity;
+        this.hitCount = new AtomicLong();
+        this.missCount = new AtomicLong();
+    }
+
+    /**
+     * Returns the serialized form of the provided activity, serializing it if it is not already cached.
+     * <p>
+     * The returned array is shared, and must not be modified.
+     */
+    public byte[] encode(final Activity activity) throws IOException {
+        synchronized (this) {
+            final byte[] encodedActivity = this.entries.get(activity);
+            if (encodedActivity != null) {
+                this.hitCount.incrementAndGet();
+                return encodedActivity;
+            }
+        }
+
+        // The activity is serialized without holding the lock, two threads may end up serializing the same activity,
+        // but that's harmless.
+        this.missCount.incrementAndGet();
+        final byte[] encodedActivity = PacketCodec.serialize(activity);
+
+        synchronized (this) {
+            this.entries.put(activity, encodedActivity);
+        }
+
+        return encodedActivity;
+    }
+
+    /**
+     * Returns the number of activities in the cache.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the number of activities that can be kept in the cache.
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of times that an activity was found in the cache.
+     */
+    public long hitCount() {
+        return this.hitCount.get();
+    }
+
+    /**
+     * Returns the number of times that an activity had to be serialized.
+     */
+    public long missCount() {
+        return this.missCount.get();
+    }
+}
@@ -0,0 +1,55 @@
+package dev.caoimhe.jdiscordipc.activity;
+
+import java.time.Duration;
+
+/**
+ * The rate that activity updates are sent to the Discord client at.
+ * <p>
+ * At most {@link #updates()} updates are sent within any {@link #period()}, they can be sent all at once. Updates made
+ * faster than this are coalesced, only the latest one is sent.
+ *
+ * @see ActivityManager
+ * @see dev.caoimhe.jdiscordipc.builder.JDiscordIPCBuilder#activityRateLimit(ActivityRateLimit)
+ */
+public class ActivityRateLimit {
+    /**
+     * The rate limit applied by the Discord client, which allows 5 activity updates every 20 seconds.
+     */
+    public static final ActivityRateLimit DISCORD = new ActivityRateLimit(5, Duration.ofSeconds(20));
+
+    private final int updates;
+    private final Duration period;
+
+    /**
+     * Initializes a new {@link ActivityRateLimit}.
+     *
+     * @param updates The number of updates that can be sent within the period.
+     * @param period  The period of time that the updates can be sent within.
+     */
+    public ActivityRateLimit(final int updates, final Duration period) {
+        if (updates <= 0) {
+            throw new IllegalArgumentException("updates must be positive");
+        }
+
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+
+        this.updates = updates;
+        this.period = period;
+    }
+
+    /**
+     * The number of updates that can be sent within the {@link #period()}.
+     */
+    public int updates() {
+        return this.updates;
+    }
+
+    /**
+     * The period of time that {@link #updates()} updates can be sent within.
+     */
+    public Duration period() {
+        return this.period;
+    }
+}
@@ -1,10 +1,13 @@
 package dev.caoimhe.jdiscordipc.activity.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import dev.caoimhe.jdiscordipc.activity.model.assets.ActivityAssets;
 import dev.caoimhe.jdiscordipc.activity.model.party.ActivityParty;
 import org.jspecify.annotations.Nullable;
 
+import java.util.Objects;
+
 /**
  * An activity being sent to the Discord client to be displayed on the user's profile.
  *
@@ -30,6 +33,12 @@ public class Activity {
 
     private final @Nullable ActivityAssets assets;
 
+    /**
+     * The cached hash code of this instance, or 0 if it has not been computed yet.
+     */
+    @JsonIgnore
+    private int hashCode;
+
     /**
      * Initializes a new {@link Activity} instance.
      *
@@ -71,4 +80,44 @@ public class Activity {
     public static ActivityBuilder builder() {
         return new ActivityBuilder();
     }
+
+    @Override
+    public boolean equals(final @Nullable Object other) {
+        if (this == other) return true;
+        if (other == null || this.getClass() != other.getClass()) return false;
+
+        final Activity activity = (Activity) other;
+        return this.hashCode() == activity.hashCode() &&
+            this.type == activity.type &&
+            Objects.equals(this.details, activity.details) &&
+            Objects.equals(this.detailsUrl, activity.detailsUrl) &&
+            Objects.equals(this.state, activity.state) &&
+            Objects.equals(this.stateUrl, activity.stateUrl) &&
+            this.statusDisplayType == activity.statusDisplayType &&
+            Objects.equals(this.party, activity.party) &&
+            Objects.equals(this.timestamps, activity.timestamps) &&
+            Objects.equals(this.assets, activity.assets);
+    }
+
+    @Override
+    public int hashCode() {
+        // Activities are immutable, so their hash code only needs to be computed once.
+        int hashCode = this.hashCode;
+        if (hashCode == 0) {
+            hashCode = Objects.hash(
+                this.type,
+                this.details,
+                this.detailsUrl,
+                this.state,
+                this.stateUrl,
+                this.statusDisplayType,
+                this.party,
+                this.timestamps,
+                this.assets
+            );
+            this.hashCode = hashCode;
+        }
+
+        return hashCode;
+    }
 }
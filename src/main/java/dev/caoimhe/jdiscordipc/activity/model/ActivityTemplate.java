@@ -0,0 +1,359 @@
+package dev.caoimhe.jdiscordipc.activity.model;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import dev.caoimhe.jdiscordipc.packet.codec.PacketCodec;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An {@link Activity} whose static parts have been serialized ahead of time, leaving {@link Slot}s for the values that
+ * change between updates.
+ * <p>
+ * Filling in a template only has to encode the values of its slots, the rest of the activity is copied from bytes that
+ * were serialized when the template was built. This is much cheaper than building and serializing a whole
+ * {@link Activity} for every update that only changes e.g. its state.
+ * <pre>{@code
+ * final ActivityTemplate.Slot<String> wave = ActivityTemplate.stringSlot("wave");
+ * final ActivityTemplate template = ActivityTemplate.builder()
+ *     .details("Survival")
+ *     .state(wave)
+ *     .build();
+ *
+ * jDiscordIPC.updateActivity(template.fill().set(wave, "Wave 12").build());
+ * }</pre>
+ *
+ * @see ActivityTemplateBuilder
+ * @see TemplatedActivity
+ */
+public class ActivityTemplate {
+    private final ActivityType type;
+
+    /**
+     * The serialized static parts of the activity. A slot's value is written between each part and the next.
+     */
+    private final byte[][] parts;
+
+    /**
+     * The slot whose value is written after the part at the same index.
+     */
+    private final Slot<?>[] partSlots;
+
+    /**
+     * The distinct slots in this template. The values of a {@link TemplatedActivity} are stored in this order.
+     */
+    private final Slot<?>[] slots;
+
+    /**
+     * The total length of the {@link #parts}, used to size the buffer that a filled template is encoded into.
+     */
+    private final int staticLength;
+
+    private ActivityTemplate(final ActivityType type, final byte[][] parts, final Slot<?>[] partSlots, final Slot<?>[] slots) {
+        this.type = type;
+        this.parts = parts;
+        this.partSlots = partSlots;
+        this.slots = slots;
+
+        int staticLength = 0;
+        for (final byte[] part : parts) {
+            staticLength += part.length;
+        }
+
+        this.staticLength = staticLength;
+    }
+
+    /**
+     * Returns an {@link ActivityTemplateBuilder} to construct an {@link ActivityTemplate} with.
+     */
+    public static ActivityTemplateBuilder builder() {
+        return new ActivityTemplateBuilder();
+    }
+
+    /**
+     * Creates a slot for a string, e.g. an activity's state.
+     *
+     * @param name The name of the slot, used in error messages.
+     */
+    public static Slot<String> stringSlot(final String name) {
+        return new Slot<>(name, Slot.Kind.STRING);
+    }
+
+    /**
+     * Creates a slot for an integer, e.g. the current size of an activity's party.
+     *
+     * @param name The name of the slot, used in error messages.
+     */
+    public static Slot<Integer> integerSlot(final String name) {
+        return new Slot<>(name, Slot.Kind.INTEGER);
+    }
+
+    /**
+     * Creates a slot for a timestamp, e.g. the time that an activity started at.
+     *
+     * @param name The name of the slot, used in error messages.
+     */
+    public static Slot<Instant> timestampSlot(final String name) {
+        return new Slot<>(name, Slot.Kind.TIMESTAMP);
+    }
+
+    /**
+     * Returns a {@link Filler} to set the values of this template's slots with.
+     */
+    public Filler fill() {
+        return new Filler(this);
+    }
+
+    /**
+     * The type of the activities created from this template.
+     */
+    public ActivityType type() {
+        return this.type;
+    }
+
+    /**
+     * Compiles a template from a prototype activity, which has been serialized with a unique sentinel value in place of
+     * each slot.
+     *
+     * @param type       The type of the activity.
+     * @param json       The serialized prototype activity.
+     * @param slots      The distinct slots used in the activity, in the order that their sentinels were assigned.
+     * @param useCounts  The number of times each slot is used in the activity.
+     */
+    static ActivityTemplate compile(final ActivityType type, final String json, final List<Slot<?>> slots, final int[] useCounts) {
+        final List<int[]> occurrences = new ArrayList<>();
+
+        for (int slotIndex = 0; slotIndex < slots.size(); slotIndex++) {
+            final String token = slots.get(slotIndex).kind.sentinelToken(slotIndex);
+
+            int found = 0;
+            for (int index = json.indexOf(token); index != -1; index = json.indexOf(token, index + token.length())) {
+                occurrences.add(new int[]{index, token.length(), slotIndex});
+                found++;
+            }
+
+            // This can only happen if a static value happens to contain the sentinel.
+            if (found != useCounts[slotIndex]) {
+                throw new IllegalStateException("Failed to locate slot '" + slots.get(slotIndex).name + "' in the activity template");
+            }
+        }
+
+        occurrences.sort(Comparator.comparingInt(occurrence -> occurrence[0]));
+
+        final byte[][] parts = new byte[occurrences.size() + 1][];
+        final Slot<?>[] partSlots = new Slot<?>[occurrences.size()];
+
+        int start = 0;
+        for (int i = 0; i < occurrences.size(); i++) {
+            final int[] occurrence = occurrences.get(i);
+            parts[i] = json.substring(start, occurrence[0]).getBytes(StandardCharsets.UTF_8);
+            partSlots[i] = slots.get(occurrence[2]);
+            start = occurrence[0] + occurrence[1];
+        }
+
+        parts[occurrences.size()] = json.substring(start).getBytes(StandardCharsets.UTF_8);
+        return new ActivityTemplate(type, parts, partSlots, slots.toArray(new Slot<?>[0]));
+    }
+
+    /**
+     * Writes the JSON for an activity created from this template, encoded in UTF-8.
+     *
+     * @param values The values of the slots, in the order of {@link #slots}.
+     */
+    void writeTo(final OutputStream outputStream, final Object[] values) throws IOException {
+        for (int i = 0; i < this.partSlots.length; i++) {
+            outputStream.write(this.parts[i]);
+
+            final Slot<?> slot = this.partSlots[i];
+            slot.kind.writeValue(outputStream, values[this.indexOf(slot)]);
+        }
+
+        outputStream.write(this.parts[this.partSlots.length]);
+    }
+
+    /**
+     * Returns a guess of the encoded length of an activity created from this template.
+     */
+    int estimateLength() {
+        return this.staticLength + this.partSlots.length * 16;
+    }
+
+    /**
+     * Returns the index of a slot in {@link #slots}, or -1 if it is not part of this template.
+     * <p>
+     * Templates only have a handful of slots, so a linear search is faster than a map lookup.
+     */
+    private int indexOf(final Slot<?> slot) {
+        for (int i = 0; i < this.slots.length; i++) {
+            if (this.slots[i] == slot) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * A placeholder in an {@link ActivityTemplate} for a value which is set whenever the template is filled in.
+     * <p>
+     * Slots are compared by identity, a slot can be used in more than one template, or more than once in the same
+     * template.
+     *
+     * @param <T> The type of the slot's value.
+     */
+    public static class Slot<T> {
+        private final String name;
+        private final Kind kind;
+
+        private Slot(final String name, final Kind kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+
+        /**
+         * The name of this slot, used in error messages.
+         */
+        public String name() {
+            return this.name;
+        }
+
+        /**
+         * The type of value that this slot holds.
+         */
+        Kind kind() {
+            return this.kind;
+        }
+
+        @Override
+        public String toString() {
+            return "Slot{name=" + this.name + ", kind=" + this.kind + "}";
+        }
+
+        /**
+         * The types of values that a slot can hold.
+         */
+        enum Kind {
+            STRING {
+                @Override
+                Object sentinel(final int slotIndex) {
+                    // Control characters are escaped by Jackson, so they can't appear unescaped in any other value.
+                    return "\u0001jdiscordipc-slot-" + slotIndex + "\u0001";
+                }
+
+                @Override
+                void writeValue(final OutputStream outputStream, final Object value) throws IOException {
+                    outputStream.write('"');
+                    outputStream.write(JsonStringEncoder.getInstance().quoteAsUTF8((String) value));
+                    outputStream.write('"');
+                }
+            },
+
+            INTEGER {
+                @Override
+                Object sentinel(final int slotIndex) {
+                    return -1_987_650_000 - slotIndex;
+                }
+
+                @Override
+                void writeValue(final OutputStream outputStream, final Object value) throws IOException {
+                    writeAscii(outputStream, Integer.toString((Integer) value));
+                }
+            },
+
+            TIMESTAMP {
+                @Override
+                Object sentinel(final int slotIndex) {
+                    return -7_777_777_777_777_770_000L - slotIndex;
+                }
+
+                @Override
+                void writeValue(final OutputStream outputStream, final Object value) throws IOException {
+                    writeAscii(outputStream, Long.toString(((Instant) value).toEpochMilli()));
+                }
+            };
+
+            /**
+             * Returns the value used in place of a slot when serializing the prototype activity.
+             */
+            abstract Object sentinel(final int slotIndex);
+
+            /**
+             * Writes a value of this kind as JSON.
+             */
+            abstract void writeValue(final OutputStream outputStream, final Object value) throws IOException;
+
+            /**
+             * Returns the sentinel for a slot as it appears in the serialized prototype activity.
+             */
+            String sentinelToken(final int slotIndex) {
+                try {
+                    return new String(PacketCodec.serialize(this.sentinel(slotIndex)), StandardCharsets.UTF_8);
+                } catch (final IOException e) {
+                    throw new IllegalStateException("Failed to serialize an activity template slot", e);
+                }
+            }
+
+            private static void writeAscii(final OutputStream outputStream, final String string) throws IOException {
+                for (int i = 0; i < string.length(); i++) {
+                    outputStream.write(string.charAt(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the values of an {@link ActivityTemplate}'s slots, to create a {@link TemplatedActivity}.
+     *
+     * @see ActivityTemplate#fill()
+     */
+    public static class Filler {
+        private final ActivityTemplate template;
+        private final @Nullable Object[] values;
+
+        private Filler(final ActivityTemplate template) {
+            this.template = template;
+            this.values = new Object[template.slots.length];
+        }
+
+        /**
+         * Sets the value of a slot.
+         *
+         * @throws IllegalArgumentException If the slot is not part of the template.
+         */
+        public <T> Filler set(final Slot<T> slot, final T value) {
+            final int index = this.template.indexOf(slot);
+            if (index == -1) {
+                throw new IllegalArgumentException("Slot '" + slot.name + "' is not part of this activity template");
+            }
+
+            if (value == null) {
+                throw new IllegalArgumentException("The value for slot '" + slot.name + "' must not be null");
+            }
+
+            this.values[index] = value;
+            return this;
+        }
+
+        /**
+         * Creates a {@link TemplatedActivity} from the template and the values that have been set.
+         *
+         * @throws IllegalStateException If the value of a slot has not been set.
+         */
+        public TemplatedActivity build() {
+            for (int i = 0; i < this.values.length; i++) {
+                if (this.values[i] == null) {
+                    throw new IllegalStateException("The value for slot '" + this.template.slots[i].name + "' has not been set");
+                }
+            }
+
+            return new TemplatedActivity(this.template, Arrays.copyOf(this.values, this.values.length));
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package dev.caoimhe.jdiscordipc.activity.model;
+
+import dev.caoimhe.jdiscordipc.activity.model.assets.ActivityAssets;
+import dev.caoimhe.jdiscordipc.activity.model.assets.ActivityAssetsBuilder;
+import dev.caoimhe.jdiscordipc.activity.model.party.ActivityParty;
+import dev.caoimhe.jdiscordipc.activity.model.party.ActivityPartyPrivacy;
+import dev.caoimhe.jdiscordipc.packet.codec.PacketCodec;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A builder for a {@link ActivityTemplate} instance.
+ * <p>
+ * This mirrors {@link ActivityBuilder}, but most values can also be an {@link ActivityTemplate.Slot}, which is filled in
+ * whenever an activity is created from the template. Like with {@link ActivityBuilder}, you must either set the details
+ * or the state, otherwise, Discord will reject the activity.
+ */
+public class ActivityTemplateBuilder {
+    /**
+     * The type of {@link Activity} being built.
+     * <p>
+     * Defaults to {@link ActivityType#PLAYING}.
+     */
+    private ActivityType type;
+
+    /**
+     * The details of the activity, either a {@link String} or a slot.
+     */
+    private @Nullable Object details;
+
+    /**
+     * The URL that is linked when clicking on the details text.
+     */
+    private @Nullable String detailsUrl;
+
+    /**
+     * The state of the activity, either a {@link String} or a slot.
+     */
+    private @Nullable Object state;
+
+    /**
+     * The URL that is linked when clicking on the state text.
+     */
+    private @Nullable String stateUrl;
+
+    /**
+     * Controls which field of the activity is displayed in the user's status text.
+     */
+    private @Nullable ActivityStatusDisplayType statusDisplayType;
+
+    /**
+     * The party attached to this activity, if it does not have any slots.
+     */
+    private @Nullable ActivityParty party;
+
+    /**
+     * The party attached to this activity, if its current size is a slot.
+     */
+    private @Nullable PartyTemplate partyTemplate;
+
+    /**
+     * The timestamps of this activity, if they do not have any slots.
+     */
+    private @Nullable ActivityTimestamps timestamps;
+
+    /**
+     * The slot for the time that the activity started at, if the timestamps have slots.
+     */
+    private ActivityTemplate.@Nullable Slot<Instant> startSlot;
+
+    /**
+     * The slot for the time that the activity ends at, if the timestamps have slots and an end.
+     */
+    private ActivityTemplate.@Nullable Slot<Instant> endSlot;
+
+    /**
+     * The assets to display to users in the activity card.
+     */
+    private @Nullable ActivityAssets assets;
+
+    /**
+     * Initializes a new {@link ActivityTemplateBuilder} instance with the following defaults:
+     * <ul>
+     *     <li>{@link #type}: {@link ActivityType#PLAYING}.</li>
+     * </ul>
+     */
+    public ActivityTemplateBuilder() {
+        this.type = ActivityType.PLAYING;
+    }
+
+    /**
+     * Sets the {@link ActivityType} for the built template.
+     */
+    public ActivityTemplateBuilder type(final ActivityType type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * Sets the state of <i>what the user is doing</i> for this activity, also known as the "activity details".
+     */
+    public ActivityTemplateBuilder details(final @Nullable String details) {
+        this.details = details;
+        return this;
+    }
+
+    /**
+     * Sets the slot for the state of <i>what the user is doing</i> for this activity.
+     */
+    public ActivityTemplateBuilder details(final ActivityTemplate.Slot<String> details) {
+        this.details = details;
+        return this;
+    }
+
+    /**
+     * Sets the URL that is linked when clicking on the details text.
+     */
+    public ActivityTemplateBuilder detailsUrl(final @Nullable String url) {
+        this.detailsUrl = url;
+        return this;
+    }
+
+    /**
+     * Sets the state of <i>the party</i> for this activity.
+     */
+    public ActivityTemplateBuilder state(final @Nullable String state) {
+        this.state = state;
+        return this;
+    }
+
+    /**
+     * Sets the slot for the state of <i>the party</i> for this activity.
+     */
+    public ActivityTemplateBuilder state(final ActivityTemplate.Slot<String> state) {
+        this.state = state;
+        return this;
+    }
+
+    /**
+     * Sets the URL that is linked when clicking on the state text.
+     */
+    public ActivityTemplateBuilder stateUrl(final @Nullable String url) {
+        this.stateUrl = url;
+        return this;
+    }
+
+    /**
+     * Sets which field of the activity is displayed in the user's status text.
+     *
+     * @see ActivityStatusDisplayType
+     */
+    public ActivityTemplateBuilder statusDisplayType(final @Nullable ActivityStatusDisplayType statusDisplayType) {
+        this.statusDisplayType = statusDisplayType;
+        return this;
+    }
+
+    /**
+     * Sets the {@link ActivityParty} for the built template.
+     */
+    public ActivityTemplateBuilder party(final @Nullable ActivityParty party) {
+        this.party = party;
+        this.partyTemplate = null;
+        return this;
+    }
+
+    /**
+     * Sets the party for the built template, with a slot for the number of people currently in it.
+     *
+     * @param id          The unique ID of this party.
+     * @param currentSize The slot for the number of people currently in this party, which must be at least 1.
+     * @param maxSize     The maximum number of people allowed in this party.
+     * @param privacy     The privacy of this party.
+     */
+    public ActivityTemplateBuilder party(
+        final String id,
+        final ActivityTemplate.Slot<Integer> currentSize,
+        final int maxSize,
+        final ActivityPartyPrivacy privacy
+    ) {
+        this.party = null;
+        this.partyTemplate = new PartyTemplate(id, currentSize, maxSize, privacy);
+        return this;
+    }
+
+    /**
+     * Sets the {@link ActivityTimestamps} for the built template.
+     */
+    public ActivityTemplateBuilder timestamps(final @Nullable ActivityTimestamps timestamps) {
+        this.timestamps = timestamps;
+        this.startSlot = null;
+        this.endSlot = null;
+        return this;
+    }
+
+    /**
+     * Sets the timestamps for the built template, with slots for when the activity starts and ends.
+     *
+     * @param start The slot for the time that the activity started at.
+     * @param end   The (optional) slot for the time that the activity should end at.
+     */
+    public ActivityTemplateBuilder timestamps(
+        final ActivityTemplate.Slot<Instant> start,
+        final ActivityTemplate.@Nullable Slot<Instant> end
+    ) {
+        this.timestamps = null;
+        this.startSlot = start;
+        this.endSlot = end;
+        return this;
+    }
+
+    /**
+     * Sets the {@link ActivityAssets} for the built template.
+     *
+     * @see ActivityAssetsBuilder
+     */
+    public ActivityTemplateBuilder assets(final @Nullable ActivityAssets assets) {
+        this.assets = assets;
+        return this;
+    }
+
+    /**
+     * Sets the {@link ActivityAssets} for the built template using the builder.
+     *
+     * @param builderConsumer The {@link Consumer} to call to customize the {@link ActivityAssetsBuilder}.
+     */
+    public ActivityTemplateBuilder assets(final Consumer<ActivityAssetsBuilder> builderConsumer) {
+        final ActivityAssetsBuilder builder = ActivityAssets.builder();
+        builderConsumer.accept(builder);
+
+        this.assets = builder.build();
+        return this;
+    }
+
+    /**
+     * Compiles an {@link ActivityTemplate} from the information contained within this builder.
+     * <p>
+     * The template is compiled by serializing an {@link Activity} with a placeholder value in place of each slot, so its
+     * output always has the same structure as the equivalent {@link Activity}.
+     */
+    public ActivityTemplate build() {
+        final Sentinels sentinels = new Sentinels();
+
+        ActivityParty party = this.party;
+        if (this.partyTemplate != null) {
+            party = new ActivityParty(
+                this.partyTemplate.id,
+                (Integer) sentinels.resolve(this.partyTemplate.currentSize),
+                this.partyTemplate.maxSize,
+                this.partyTemplate.privacy
+            );
+        }
+
+        ActivityTimestamps timestamps = this.timestamps;
+        if (this.startSlot != null) {
+            timestamps = new ActivityTimestamps(
+                (Long) sentinels.resolve(this.startSlot),
+                this.endSlot != null ? (Long) sentinels.resolve(this.endSlot) : null
+            );
+        }
+
+        final Activity prototype = new Activity(
+            this.type,
+            (String) sentinels.resolve(this.details),
+            this.detailsUrl,
+            (String) sentinels.resolve(this.state),
+            this.stateUrl,
+            this.statusDisplayType,
+            party,
+            timestamps,
+            this.assets
+        );
+
+        final String json;
+        try {
+            json = new String(PacketCodec.serialize(prototype), StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new IllegalStateException("Failed to serialize the activity template", e);
+        }
+
+        return ActivityTemplate.compile(this.type, json, sentinels.slots, sentinels.useCounts());
+    }
+
+    /**
+     * A party whose current size is a slot.
+     */
+    private static class PartyTemplate {
+        private final String id;
+        private final ActivityTemplate.Slot<Integer> currentSize;
+        private final int maxSize;
+        private final ActivityPartyPrivacy privacy;
+
+        private PartyTemplate(
+            final String id,
+            final ActivityTemplate.Slot<Integer> currentSize,
+            final int maxSize,
+            final ActivityPartyPrivacy privacy
+        ) {
+            this.id = id;
+            this.currentSize = currentSize;
+            this.maxSize = maxSize;
+            this.privacy = privacy;
+        }
+    }
+
+    /**
+     * Assigns each distinct slot a sentinel value, and counts how many times each one is used.
+     */
+    private static class Sentinels {
+        private final List<ActivityTemplate.Slot<?>> slots = new ArrayList<>();
+        private final List<int[]> useCounts = new ArrayList<>();
+
+        /**
+         * Returns the sentinel for the value if it is a slot, or the value itself if it is not.
+         */
+        private @Nullable Object resolve(final @Nullable Object value) {
+            if (!(value instanceof ActivityTemplate.Slot)) {
+                return value;
+            }
+
+            final ActivityTemplate.Slot<?> slot = (ActivityTemplate.Slot<?>) value;
+
+            int index = this.slots.indexOf(slot);
+            if (index == -1) {
+                index = this.slots.size();
+                this.slots.add(slot);
+                this.useCounts.add(new int[1]);
+            }
+
+            this.useCounts.get(index)[0]++;
+            return slot.kind().sentinel(index);
+        }
+
+        private int[] useCounts() {
+            final int[] useCounts = new int[this.useCounts.size()];
+            for (int i = 0; i < useCounts.length; i++) {
+                useCounts[i] = this.useCounts.get(i)[0];
+            }
+
+            return useCounts;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package dev.caoimhe.jdiscordipc.activity.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.jspecify.annotations.Nullable;
 
 import java.time.Instant;
+import java.util.Objects;
 
 /**
  * A pair of timestamps indicating the start and/or end time of an {@link Activity}.
@@ -14,6 +16,12 @@ public class ActivityTimestamps {
     private final Long start;
     private final @Nullable Long end;
 
+    /**
+     * The cached hash code of this instance, or 0 if it has not been computed yet.
+     */
+    @JsonIgnore
+    private int hashCode;
+
     /**
      * Initializes a new {@link ActivityTimestamps} instance from a starting now.
      */
@@ -64,4 +72,24 @@ public class ActivityTimestamps {
     public @Nullable Long end() {
         return this.end;
     }
+
+    @Override
+    public boolean equals(final @Nullable Object other) {
+        if (this == other) return true;
+        if (!(other instanceof ActivityTimestamps)) return false;
+
+        final ActivityTimestamps timestamps = (ActivityTimestamps) other;
+        return this.start.equals(timestamps.start) && Objects.equals(this.end, timestamps.end);
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = this.hashCode;
+        if (hashCode == 0) {
+            hashCode = Objects.hash(this.start, this.end);
+            this.hashCode = hashCode;
+        }
+
+        return hashCode;
+    }
 }
@@ -0,0 +1,134 @@
+package dev.caoimhe.jdiscordipc.activity.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An {@link Activity} created by filling in the slots of an {@link ActivityTemplate}.
+ * <p>
+ * This only holds the template and the values of its slots, the rest of the activity is never built as objects. The
+ * fields inherited from {@link Activity} are left unset, as it is always serialized from the template.
+ *
+ * @see ActivityTemplate#fill()
+ */
+@JsonSerialize(using = TemplatedActivity.Serializer.class)
+public class TemplatedActivity extends Activity {
+    @JsonIgnore
+    private final ActivityTemplate template;
+
+    /**
+     * The values of the template's slots, in the order that the template stores them.
+     */
+    @JsonIgnore
+    private final Object[] values;
+
+    /**
+     * The encoded form of this activity, or null if it has not been encoded yet.
+     */
+    @JsonIgnore
+    private volatile byte @Nullable [] encoded;
+
+    /**
+     * The cached hash code of this instance, or 0 if it has not been computed yet.
+     */
+    @JsonIgnore
+    private int hashCode;
+
+    TemplatedActivity(final ActivityTemplate template, final Object[] values) {
+        super(template.type(), null, null, null, null, null, null, null, null);
+        this.template = template;
+        this.values = values;
+        this.encoded = null;
+    }
+
+    /**
+     * The template that this activity was created from.
+     */
+    public ActivityTemplate template() {
+        return this.template;
+    }
+
+    /**
+     * Returns the JSON for this activity, encoded in UTF-8.
+     * <p>
+     * The result is cached, the returned array must not be modified.
+     */
+    public byte[] encode() {
+        byte[] encoded = this.encoded;
+        if (encoded == null) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(this.template.estimateLength());
+            try {
+                this.writeTo(outputStream);
+            } catch (final IOException e) {
+                // A ByteArrayOutputStream never throws.
+                throw new IllegalStateException(e);
+            }
+
+            encoded = outputStream.toByteArray();
+            this.encoded = encoded;
+        }
+
+        return encoded;
+    }
+
+    /**
+     * Writes the JSON for this activity to an {@link OutputStream}, encoded in UTF-8.
+     */
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        final byte[] encoded = this.encoded;
+        if (encoded != null) {
+            outputStream.write(encoded);
+            return;
+        }
+
+        this.template.writeTo(outputStream, this.values);
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object other) {
+        if (this == other) return true;
+        if (other == null || this.getClass() != other.getClass()) return false;
+
+        final TemplatedActivity activity = (TemplatedActivity) other;
+        return this.hashCode() == activity.hashCode() &&
+            this.template == activity.template &&
+            Arrays.equals(this.values, activity.values);
+    }
+
+    @Override
+    public int hashCode() {
+        // Like every other activity, this is immutable, so its hash code only needs to be computed once.
+        int hashCode = this.hashCode;
+        if (hashCode == 0) {
+            hashCode = 31 * System.identityHashCode(this.template) + Arrays.hashCode(this.values);
+            this.hashCode = hashCode;
+        }
+
+        return hashCode;
+    }
+
+    /**
+     * Serializes a {@link TemplatedActivity} with its encoded form, so that it can be used anywhere an {@link Activity}
+     * is serialized.
+     */
+    static class Serializer extends StdSerializer<TemplatedActivity> {
+        Serializer() {
+            super(TemplatedActivity.class);
+        }
+
+        @Override
+        public void serialize(final TemplatedActivity value, final JsonGenerator generator, final SerializerProvider provider) throws IOException {
+            generator.writeRawValue(new String(value.encode(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package dev.caoimhe.jdiscordipc.activity.model.assets;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import dev.caoimhe.jdiscordipc.activity.model.Activity;
 import org.jspecify.annotations.Nullable;
 
+import java.util.Objects;
+
 /**
  * The assets to customize how the {@link Activity} is displayed to users.
  */
@@ -37,6 +40,12 @@ public class ActivityAssets {
     @JsonProperty("small_text")
     private final @Nullable String smallText;
 
+    /**
+     * The cached hash code of this instance, or 0 if it has not been computed yet.
+     */
+    @JsonIgnore
+    private int hashCode;
+
     /**
      * Initializes a new {@link ActivityAssets} instance.
      *
@@ -71,4 +80,27 @@ public class ActivityAssets {
     public static ActivityAssetsBuilder builder() {
         return new ActivityAssetsBuilder();
     }
+
+    @Override
+    public boolean equals(final @Nullable Object other) {
+        if (this == other) return true;
+        if (!(other instanceof ActivityAssets)) return false;
+
+        final ActivityAssets assets = (ActivityAssets) other;
+        return Objects.equals(this.largeImage, assets.largeImage) &&
+            Objects.equals(this.largeText, assets.largeText) &&
+            Objects.equals(this.smallImage, assets.smallImage) &&
+            Objects.equals(this.smallText, assets.smallText);
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = this.hashCode;
+        if (hashCode == 0) {
+            hashCode = Objects.hash(this.largeImage, this.largeText, this.smallImage, this.smallText);
+            this.hashCode = hashCode;
+        }
+
+        return hashCode;
+    }
 }
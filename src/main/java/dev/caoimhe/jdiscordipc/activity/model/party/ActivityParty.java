@@ -1,8 +1,12 @@
 package dev.caoimhe.jdiscordipc.activity.model.party;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import dev.caoimhe.jdiscordipc.activity.model.Activity;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
 
 /**
  * A party within a {@link Activity}.
@@ -26,6 +30,12 @@ public class ActivityParty {
      */
     private final ActivityPartyPrivacy privacy;
 
+    /**
+     * The cached hash code of this instance, or 0 if it has not been computed yet.
+     */
+    @JsonIgnore
+    private int hashCode;
+
     /**
      * Initializes a new {@link ActivityParty} instance.
      *
@@ -60,4 +70,24 @@ public class ActivityParty {
     public static ActivityPartyBuilder builder(final String id, final int currentSize) {
         return new ActivityPartyBuilder(id, currentSize);
     }
+
+    @Override
+    public boolean equals(final @Nullable Object other) {
+        if (this == other) return true;
+        if (!(other instanceof ActivityParty)) return false;
+
+        final ActivityParty party = (ActivityParty) other;
+        return this.id.equals(party.id) && Arrays.equals(this.size, party.size) && this.privacy == party.privacy;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = this.hashCode;
+        if (hashCode == 0) {
+            hashCode = 31 * (31 * this.id.hashCode() + Arrays.hashCode(this.size)) + this.privacy.hashCode();
+            this.hashCode = hashCode;
+        }
+
+        return hashCode;
+    }
 }
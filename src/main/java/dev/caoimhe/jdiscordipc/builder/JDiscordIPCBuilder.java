@@ -1,13 +1,21 @@
 package dev.caoimhe.jdiscordipc.builder;
 
+import dev.caoimhe.jdiscordipc.BackpressurePolicy;
 import dev.caoimhe.jdiscordipc.JDiscordIPC;
 import dev.caoimhe.jdiscordipc.ReconnectPolicy;
+import dev.caoimhe.jdiscordipc.activity.ActivityDeduplication;
+import dev.caoimhe.jdiscordipc.activity.ActivityRateLimit;
 import dev.caoimhe.jdiscordipc.exception.JDiscordIPCBuilderException;
+import dev.caoimhe.jdiscordipc.packet.PacketManager;
+import dev.caoimhe.jdiscordipc.packet.PacketWriter;
+import dev.caoimhe.jdiscordipc.packet.codec.PacketRegistry;
 import dev.caoimhe.jdiscordipc.socket.SystemSocketFactory;
 import dev.caoimhe.jdiscordipc.socket.impl.WindowsSystemSocketFactory;
 import dev.caoimhe.jdiscordipc.internal.util.SystemUtil;
 import org.jspecify.annotations.Nullable;
 
+import java.time.Duration;
+
 /**
  * A builder for {@link JDiscordIPC} instances.
  *
@@ -31,6 +39,62 @@ public class JDiscordIPCBuilder {
      */
     private @Nullable SystemSocketFactory systemSocketFactory;
 
+    /**
+     * Whether packets should be read into and written from direct buffers.
+     *
+     * @see #directBuffers(boolean)
+     */
+    private boolean directBuffers;
+
+    /**
+     * Describes how each type of incoming packet is decoded.
+     *
+     * @see #packetRegistry(PacketRegistry)
+     */
+    private PacketRegistry packetRegistry;
+
+    /**
+     * Whether the data of incoming frame packets should only be deserialized when it is first requested.
+     *
+     * @see #lazyFrameDecoding(boolean)
+     */
+    private boolean lazyFrameDecoding;
+
+    /**
+     * The amount of time to wait for a response to a request sent to the Discord client.
+     *
+     * @see #requestTimeout(Duration)
+     */
+    private Duration requestTimeout;
+
+    /**
+     * The number of outgoing packets that can be waiting to be written at once.
+     *
+     * @see #outgoingQueueCapacity(int)
+     */
+    private int outgoingQueueCapacity;
+
+    /**
+     * What happens when a packet is sent while the outgoing packet queue is full.
+     *
+     * @see #backpressurePolicy(BackpressurePolicy)
+     */
+    private BackpressurePolicy backpressurePolicy;
+
+    /**
+     * The rate that activity updates are sent to the Discord client at.
+     *
+     * @see #activityRateLimit(ActivityRateLimit)
+     */
+    private ActivityRateLimit activityRateLimit;
+
+    /**
+     * How an activity update is compared with the last activity that was sent, to avoid sending it again.
+     *
+     * @see #activityDeduplication(ActivityDeduplication)
+     */
+    private ActivityDeduplication activityDeduplication;
+
     /**
      * Initializes a new {@link JDiscordIPCBuilder}.
      *
@@ -40,10 +104,19 @@ public class JDiscordIPCBuilder {
         this.clientId = clientId;
         this.reconnectPolicy = ReconnectPolicy.NEVER;
         this.systemSocketFactory = null;
+        this.directBuffers = false;
+        this.packetRegistry = PacketRegistry.withDefaults();
+        this.lazyFrameDecoding = false;
+        this.requestTimeout = PacketManager.DEFAULT_REQUEST_TIMEOUT;
+        this.outgoingQueueCapacity = PacketWriter.DEFAULT_CAPACITY;
+        this.backpressurePolicy = BackpressurePolicy.DROP_OLDEST;
+        this.activityRateLimit = ActivityRateLimit.DISCORD;
+        this.activityDeduplication = ActivityDeduplication.EQUALITY;
     }
 
     /**
-     * Sets the {@link ReconnectPolicy} that should be used when the Discord client terminates the connection.
+     * Sets the {@link ReconnectPolicy} that should be used when the Discord client terminates the connection, for
+     * example {@link ReconnectPolicy#exponentialBackoff(Duration, Duration)}. Defaults to {@link ReconnectPolicy#NEVER}.
      */
     public JDiscordIPCBuilder reconnectPolicy(final ReconnectPolicy reconnectPolicy) {
         this.reconnectPolicy = reconnectPolicy;
@@ -63,6 +136,101 @@ public class JDiscordIPCBuilder {
         return this;
     }
 
+    /**
+     * Sets whether packets should be read into and written from direct (off-heap) buffers instead of heap buffers.
+     * <p>
+     * This is only respected if the {@link dev.caoimhe.jdiscordipc.socket.SystemSocket} created by the
+     * {@link SystemSocketFactory} supports direct buffers. Defaults to false.
+     *
+     * @see dev.caoimhe.jdiscordipc.socket.SystemSocket#supportsDirectBuffers()
+     */
+    public JDiscordIPCBuilder directBuffers(final boolean directBuffers) {
+        this.directBuffers = directBuffers;
+        return this;
+    }
+
+    /**
+     * Sets the {@link PacketRegistry} describing how each type of incoming packet is decoded.
+     * <p>
+     * This can be used to receive packets, commands and events which JDiscordIPC does not know about, or to replace how
+     * a known one is decoded. Defaults to {@link PacketRegistry#withDefaults()}.
+     */
+    public JDiscordIPCBuilder packetRegistry(final PacketRegistry packetRegistry) {
+        this.packetRegistry = packetRegistry;
+        return this;
+    }
+
+    /**
+     * Sets whether the data of incoming frame packets (e.g. events) should only be deserialized when it is first
+     * requested, instead of as soon as the packet is received.
+     * <p>
+     * When enabled, only the fields needed to route a packet are read when it is received. Packets whose data is never
+     * looked at cost almost nothing to decode, but a malformed event will only fail when its data is requested. Defaults
+     * to false.
+     */
+    public JDiscordIPCBuilder lazyFrameDecoding(final boolean lazyFrameDecoding) {
+        this.lazyFrameDecoding = lazyFrameDecoding;
+        return this;
+    }
+
+    /**
+     * Sets the amount of time to wait for a response to a request sent to the Discord client, before failing it.
+     * Defaults to {@link PacketManager#DEFAULT_REQUEST_TIMEOUT}.
+     *
+     * @see PacketManager#sendRequest(dev.caoimhe.jdiscordipc.packet.impl.frame.OutgoingFramePacket)
+     */
+    public JDiscordIPCBuilder requestTimeout(final Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the number of outgoing frame packets (e.g. activity updates) that can be waiting to be written to the Discord
+     * client at once. Control packets (e.g. pongs) are queued separately, and are never held back by this capacity.
+     * Defaults to {@link PacketWriter#DEFAULT_CAPACITY}.
+     *
+     * @see #backpressurePolicy(BackpressurePolicy)
+     */
+    public JDiscordIPCBuilder outgoingQueueCapacity(final int outgoingQueueCapacity) {
+        if (outgoingQueueCapacity <= 0) {
+            throw new IllegalArgumentException("outgoingQueueCapacity must be positive");
+        }
+
+        this.outgoingQueueCapacity = outgoingQueueCapacity;
+        return this;
+    }
+
+    /**
+     * Sets what happens when a packet is sent while the outgoing packet queue is full, for example because the Discord
+     * client has stopped reading from the socket. Defaults to {@link BackpressurePolicy#DROP_OLDEST}.
+     *
+     * @see #outgoingQueueCapacity(int)
+     */
+    public JDiscordIPCBuilder backpressurePolicy(final BackpressurePolicy backpressurePolicy) {
+        this.backpressurePolicy = backpressurePolicy;
+        return this;
+    }
+
+    /**
+     * Sets the rate that activity updates are sent to the Discord client at. Updates made faster than this are
+     * coalesced, and only the latest activity is sent. Defaults to {@link ActivityRateLimit#DISCORD}.
+     *
+     * @see dev.caoimhe.jdiscordipc.activity.ActivityManager
+     */
+    public JDiscordIPCBuilder activityRateLimit(final ActivityRateLimit activityRateLimit) {
+        this.activityRateLimit = activityRateLimit;
+        return this;
+    }
+
+    /**
+     * Sets how an activity update is compared with the last activity that was sent. Updates which are the same as it
+     * are not sent again. Defaults to {@link ActivityDeduplication#EQUALITY}.
+     */
+    public JDiscordIPCBuilder activityDeduplication(final ActivityDeduplication activityDeduplication) {
+        this.activityDeduplication = activityDeduplication;
+        return this;
+    }
+
     /**
      * Constructs a {@link JDiscordIPC} instance from this builder.
      * This does not connect to the Discord socket yet, call {@link JDiscordIPC#connect} to initialize the connection.
@@ -85,6 +253,19 @@ public class JDiscordIPCBuilder {
             throw new JDiscordIPCBuilderException.MissingSystemSocketFactoryException();
         }
 
-        return new JDiscordIPC(this.clientId, this.reconnectPolicy, systemSocketFactory.createSystemSocket());
+        return new JDiscordIPC(
+            /* clientId */ this.clientId,
+            /* reconnectPolicy */ this.reconnectPolicy,
+            /* systemSocket */ systemSocketFactory.createSystemSocket(),
+            /* directBuffers */ this.directBuffers,
+            /* packetRegistry */ this.packetRegistry,
+            /* lazyFrameDecoding */ this.lazyFrameDecoding,
+            /* requestTimeout */ this.requestTimeout,
+            /* outgoingQueueCapacity */ this.outgoingQueueCapacity,
+            /* backpressurePolicy */ this.backpressurePolicy,
+            /* activityRateLimit */ this.activityRateLimit,
+            /* activityDeduplication */ this.activityDeduplication,
+            /* systemSocketFactory */ systemSocketFactory
+        );
     }
 }
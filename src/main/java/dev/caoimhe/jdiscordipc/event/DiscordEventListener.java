@@ -3,6 +3,9 @@ package dev.caoimhe.jdiscordipc.event;
 import dev.caoimhe.jdiscordipc.event.model.Event;
 import dev.caoimhe.jdiscordipc.event.model.ReadyEvent;
 import dev.caoimhe.jdiscordipc.event.model.VoiceChannelSelectEvent;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Set;
 
 /**
  * An interface for all Discord event listeners to implement.
@@ -10,6 +13,18 @@ import dev.caoimhe.jdiscordipc.event.model.VoiceChannelSelectEvent;
  * @see Event
  */
 public interface DiscordEventListener {
+    /**
+     * Returns the types of events that this listener handles.
+     * <p>
+     * Events of any other type are not passed to this listener. If no registered listener handles a type of event,
+     * events of that type are dropped before they are deserialized.
+     *
+     * @return The types of events to pass to this listener, or null if every event should be passed to it.
+     */
+    default @Nullable Set<Class<? extends Event>> eventTypes() {
+        return null;
+    }
+
     /**
      * Fired when an event has been dispatched by the Discord client.
      *
@@ -2,6 +2,8 @@ package dev.caoimhe.jdiscordipc.exception;
 
 import org.jspecify.annotations.Nullable;
 
+import java.time.Duration;
+
 /**
  * A base class for all JDiscordIPC exceptions to implement.
  */
@@ -19,4 +21,52 @@ public class JDiscordIPCException extends Exception {
             super("Unable to establish a connection to the Discord client", cause);
         }
     }
+
+    /**
+     * Thrown when the Discord client does not respond to a request within its timeout.
+     */
+    public static class RequestTimeoutException extends JDiscordIPCException {
+        public RequestTimeoutException(final String uniqueId, final Duration timeout) {
+            super("The Discord client did not respond to request " + uniqueId + " within " + timeout.toMillis() + "ms", null);
+        }
+    }
+
+    /**
+     * Thrown when a request is dropped to make room for a newer one, because too many requests were waiting for a
+     * response from the Discord client.
+     */
+    public static class TooManyPendingRequestsException extends JDiscordIPCException {
+        public TooManyPendingRequestsException(final int capacity) {
+            super("The request was dropped as more than " + capacity + " requests were waiting for a response", null);
+        }
+    }
+
+    /**
+     * Thrown when the connection to the Discord client is closed while waiting for a response to a request, or for the
+     * Discord client to accept the handshake.
+     */
+    public static class ConnectionClosedException extends JDiscordIPCException {
+        public ConnectionClosedException() {
+            super("The connection to the Discord client was closed before a response was received", null);
+        }
+    }
+
+    /**
+     * Thrown when the connection to the Discord client is not established or not ready within its timeout, see
+     * {@link dev.caoimhe.jdiscordipc.ConnectOptions#connectTimeout()}.
+     */
+    public static class ConnectTimeoutException extends JDiscordIPCException {
+        public ConnectTimeoutException(final String stage, final Duration timeout) {
+            super("The connection to the Discord client was not " + stage + " within " + timeout.toMillis() + "ms", null);
+        }
+    }
+
+    /**
+     * Thrown when a packet is dropped before it is written, see {@link dev.caoimhe.jdiscordipc.BackpressurePolicy}.
+     */
+    public static class PacketDroppedException extends JDiscordIPCException {
+        public PacketDroppedException(final String reason) {
+            super("The packet was dropped before it was written, as " + reason, null);
+        }
+    }
 }
@@ -0,0 +1,351 @@
+package dev.caoimhe.jdiscordipc.internal.util;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * This class is internal to JDiscordIPC. You should not use this in your own application!
+ * <p>
+ * A hashed timing wheel, which runs tasks after a delay using a single thread.
+ * <p>
+ * Scheduled tasks are placed into one of a fixed number of buckets based on their deadline. Every tick, the thread
+ * looks at one bucket and runs the tasks within it whose deadline has been reached. Scheduling and cancelling a task
+ * are both constant time, no matter how many tasks are pending. Tasks may run up to one tick after their deadline.
+ * <p>
+ * The thread is only started once the first task is scheduled. While there are no pending tasks, it waits without
+ * waking up until another task is scheduled.
+ */
+public class HashedTimingWheel {
+    /**
+     * The default duration of a tick.
+     */
+    public static final long DEFAULT_TICK_DURATION_MILLIS = 100;
+
+    /**
+     * The default number of buckets. With the default tick duration, one turn of the wheel takes 51.2 seconds.
+     */
+    public static final int DEFAULT_BUCKET_COUNT = 512;
+
+    /**
+     * The buckets of the wheel, each is the head of a doubly-linked list of timeouts.
+     */
+    private final @Nullable Timeout[] buckets;
+
+    /**
+     * Used to find the bucket for a tick, the number of buckets is always a power of two.
+     */
+    private final int bucketMask;
+
+    private final long tickDurationNanos;
+    private final long startTimeNanos;
+
+    /**
+     * The source of the current time, this is {@link System#nanoTime()} unless the wheel is driven manually.
+     */
+    private final LongSupplier nanoTime;
+
+    /**
+     * The name of the worker thread, or null if the wheel is driven manually by {@link #expireDueTicks()}.
+     */
+    private final @Nullable String threadName;
+
+    /**
+     * The next tick to be processed by the worker thread.
+     */
+    private long currentTick;
+
+    /**
+     * The number of timeouts which have been scheduled, but have not expired or been cancelled.
+     */
+    private int pendingCount;
+
+    private @Nullable Thread workerThread;
+
+    /**
+     * Initializes a new {@link HashedTimingWheel} with the default tick duration and bucket count.
+     *
+     * @param threadName The name of the worker thread.
+     */
+    public HashedTimingWheel(final String threadName) {
+        this(threadName, DEFAULT_TICK_DURATION_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_BUCKET_COUNT);
+    }
+
+    /**
+     * Initializes a new {@link HashedTimingWheel}.
+     *
+     * @param threadName   The name of the worker thread.
+     * @param tickDuration The duration of a tick, this is the precision that tasks are run with.
+     * @param unit         The unit of the tick duration.
+     * @param bucketCount  The number of buckets, this is rounded up to the next power of two.
+     */
+    public HashedTimingWheel(final String threadName, final long tickDuration, final TimeUnit unit, final int bucketCount) {
+        this(threadName, tickDuration, unit, bucketCount, System::nanoTime);
+    }
+
+    /**
+     * Initializes a new {@link HashedTimingWheel} without a worker thread. Ticks are only processed when
+     * {@link #expireDueTicks()} is called, using the current time from the provided clock. This is used by tests.
+     *
+     * @param nanoTime Returns the current time, in the same way as {@link System#nanoTime()}.
+     */
+    HashedTimingWheel(final long tickDuration, final TimeUnit unit, final int bucketCount, final LongSupplier nanoTime) {
+        this(null, tickDuration, unit, bucketCount, nanoTime);
+    }
+
+    private HashedTimingWheel(
+        final @Nullable String threadName,
+        final long tickDuration,
+        final TimeUnit unit,
+        final int bucketCount,
+        final LongSupplier nanoTime
+    ) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be positive");
+        }
+
+        if (bucketCount <= 0 || bucketCount > (1 << 30)) {
+            throw new IllegalArgumentException("bucketCount must be between 1 and 2^30");
+        }
+
+        final int roundedBucketCount = Integer.highestOneBit(bucketCount - 1) << 1;
+        this.buckets = new Timeout[Math.max(1, roundedBucketCount)];
+        this.bucketMask = this.buckets.length - 1;
+
+        this.tickDurationNanos = unit.toNanos(tickDuration);
+        this.startTimeNanos = nanoTime.getAsLong();
+        this.nanoTime = nanoTime;
+        this.threadName = threadName;
+        this.currentTick = 0;
+        this.pendingCount = 0;
+        this.workerThread = null;
+    }
+
+    /**
+     * Schedules a task to be run after the provided delay.
+     * <p>
+     * The task is run on the worker thread, so it should not block.
+     *
+     * @return A {@link Timeout} that can be used to cancel the task.
+     */
+    public Timeout schedule(final Runnable task, final long delay, final TimeUnit unit) {
+        final long deadlineNanos = this.nanoTime.getAsLong() + Math.max(0, unit.toNanos(delay));
+
+        synchronized (this) {
+            // If nothing is pending, the worker may have been waiting for a while without processing any ticks. Every
+            // bucket is empty, so it can skip straight to the current tick.
+            if (this.pendingCount == 0) {
+                this.currentTick = Math.max(this.currentTick, this.elapsedTicks(this.nanoTime.getAsLong()));
+            }
+
+            // The task is run on the first tick at or after its deadline.
+            final long elapsedNanos = deadlineNanos - this.startTimeNanos;
+            final long deadlineTick = Math.max(this.currentTick, (elapsedNanos + this.tickDurationNanos - 1) / this.tickDurationNanos);
+
+            final Timeout timeout = new Timeout(this, task);
+            timeout.bucket = (int) (deadlineTick & this.bucketMask);
+            timeout.remainingRounds = (deadlineTick - this.currentTick) / this.buckets.length;
+            this.link(timeout);
+
+            this.pendingCount++;
+
+            // A wheel which is driven manually has no worker thread to start or wake up.
+            if (this.threadName == null) {
+                return timeout;
+            }
+
+            if (this.workerThread == null) {
+                this.workerThread = new Thread(this::run, this.threadName);
+                this.workerThread.setDaemon(true);
+                this.workerThread.start();
+            } else if (this.pendingCount == 1) {
+                this.notifyAll();
+            }
+
+            return timeout;
+        }
+    }
+
+    /**
+     * Returns the number of tasks which have been scheduled, but have not run or been cancelled.
+     */
+    public synchronized int pendingCount() {
+        return this.pendingCount;
+    }
+
+    /**
+     * The loop run by the worker thread.
+     */
+    private void run() {
+        final List<Timeout> expired = new ArrayList<>();
+
+        while (true) {
+            synchronized (this) {
+                try {
+                    this.awaitTick();
+                } catch (final InterruptedException e) {
+                    return;
+                }
+
+                this.expireBucket(this.currentTick, expired);
+                this.currentTick++;
+            }
+
+            // Tasks are run without holding the lock, so that they can schedule and cancel other tasks.
+            runExpired(expired);
+            expired.clear();
+        }
+    }
+
+    /**
+     * Processes every tick which has been reached, running the tasks which expire on the calling thread. This is used
+     * instead of the worker thread by wheels which are driven manually.
+     *
+     * @return The number of tasks which were run.
+     */
+    int expireDueTicks() {
+        final List<Timeout> expired = new ArrayList<>();
+
+        synchronized (this) {
+            final long elapsedTicks = this.elapsedTicks(this.nanoTime.getAsLong());
+            while (this.pendingCount > 0 && this.currentTick <= elapsedTicks) {
+                this.expireBucket(this.currentTick, expired);
+                this.currentTick++;
+            }
+        }
+
+        runExpired(expired);
+        return expired.size();
+    }
+
+    private static void runExpired(final List<Timeout> expired) {
+        for (final Timeout timeout : expired) {
+            try {
+                timeout.task.run();
+            } catch (final Exception e) {
+                System.err.println("Failed to run scheduled task: " + e);
+            }
+        }
+    }
+
+    /**
+     * Waits until there is at least one pending timeout, and the current tick has been reached.
+     * <p>
+     * The caller must hold the lock on this wheel.
+     */
+    private void awaitTick() throws InterruptedException {
+        while (true) {
+            if (this.pendingCount == 0) {
+                this.wait();
+                continue;
+            }
+
+            final long remainingNanos = this.startTimeNanos + this.currentTick * this.tickDurationNanos - this.nanoTime.getAsLong();
+            if (remainingNanos <= 0) {
+                return;
+            }
+
+            TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+        }
+    }
+
+    /**
+     * Removes the timeouts in the bucket for the provided tick whose deadline has been reached, adding them to the
+     * provided list.
+     * <p>
+     * The caller must hold the lock on this wheel.
+     */
+    private void expireBucket(final long tick, final List<Timeout> expired) {
+        Timeout timeout = this.buckets[(int) (tick & this.bucketMask)];
+        while (timeout != null) {
+            final Timeout next = timeout.next;
+            if (timeout.remainingRounds <= 0) {
+                this.unlink(timeout);
+                this.pendingCount--;
+                timeout.state = Timeout.State.EXPIRED;
+                expired.add(timeout);
+            } else {
+                timeout.remainingRounds--;
+            }
+
+            timeout = next;
+        }
+    }
+
+    private long elapsedTicks(final long nowNanos) {
+        return (nowNanos - this.startTimeNanos) / this.tickDurationNanos;
+    }
+
+    private void link(final Timeout timeout) {
+        final Timeout head = this.buckets[timeout.bucket];
+        timeout.next = head;
+        if (head != null) {
+            head.previous = timeout;
+        }
+
+        this.buckets[timeout.bucket] = timeout;
+    }
+
+    private void unlink(final Timeout timeout) {
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        } else {
+            this.buckets[timeout.bucket] = timeout.next;
+        }
+
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+
+        timeout.previous = null;
+        timeout.next = null;
+    }
+
+    /**
+     * A task which has been scheduled on a {@link HashedTimingWheel}.
+     */
+    public static class Timeout {
+        private final HashedTimingWheel wheel;
+        private final Runnable task;
+
+        // These are guarded by the wheel's lock.
+        private int bucket;
+        private long remainingRounds;
+        private @Nullable Timeout previous;
+        private @Nullable Timeout next;
+        private State state;
+
+        private Timeout(final HashedTimingWheel wheel, final Runnable task) {
+            this.wheel = wheel;
+            this.task = task;
+            this.state = State.PENDING;
+        }
+
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * @return Whether the task was cancelled, this is false if it has already run or been cancelled.
+         */
+        public boolean cancel() {
+            synchronized (this.wheel) {
+                if (this.state != State.PENDING) {
+                    return false;
+                }
+
+                this.wheel.unlink(this);
+                this.wheel.pendingCount--;
+                this.state = State.CANCELLED;
+                return true;
+            }
+        }
+
+        private enum State {
+            PENDING,
+            CANCELLED,
+            EXPIRED
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package dev.caoimhe.jdiscordipc.internal.util;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * This class is internal to JDiscordIPC. You should not use this in your own application!
+ * <p>
+ * A hash map with primitive {@code long} keys, which does not box its keys or allocate an entry per mapping.
+ * <p>
+ * Entries are stored in two parallel arrays using open addressing with linear probing. Null values are not allowed, as
+ * a null value marks an empty slot. This class is not thread-safe.
+ *
+ * @param <V> The type of the values.
+ */
+public class LongObjectHashMap<V> {
+    private static final int MINIMUM_CAPACITY = 8;
+
+    private long[] keys;
+    private @Nullable Object[] values;
+    private int size;
+
+    /**
+     * Initializes a new {@link LongObjectHashMap} which can hold the provided number of entries without growing.
+     */
+    public LongObjectHashMap(final int expectedSize) {
+        // The table is kept at most half full, so that probe sequences stay short.
+        final int capacity = Math.max(MINIMUM_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1);
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the value for the provided key, or null if there is no value for it.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(final long key) {
+        final int index = this.indexOf(key);
+        return index == -1 ? null : (V) this.values[index];
+    }
+
+    /**
+     * Associates the value with the provided key.
+     *
+     * @return The previous value for the key, or null if there was no value for it.
+     * @throws NullPointerException If the value is null.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V put(final long key, final V value) {
+        // A null value would be mistaken for an empty slot, losing the entry and breaking the probe sequence.
+        if (value == null) {
+            throw new NullPointerException("value must not be null");
+        }
+
+        final int mask = this.keys.length - 1;
+        int index = hash(key) & mask;
+
+        while (this.values[index] != null) {
+            if (this.keys[index] == key) {
+                final V previous = (V) this.values[index];
+                this.values[index] = value;
+                return previous;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        this.keys[index] = key;
+        this.values[index] = value;
+
+        if (++this.size * 2 > this.keys.length) {
+            this.resize(this.keys.length * 2);
+        }
+
+        return null;
+    }
+
+    /**
+     * Removes the value for the provided key.
+     *
+     * @return The removed value, or null if there was no value for the key.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(final long key) {
+        final int index = this.indexOf(key);
+        if (index == -1) {
+            return null;
+        }
+
+        final V previous = (V) this.values[index];
+        this.removeAt(index);
+        return previous;
+    }
+
+    /**
+     * Returns the number of entries in this map.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether this map has no entries.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes all entries from this map.
+     */
+    public void clear() {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    /**
+     * Passes every entry in this map to the provided consumer, in no particular order. The map must not be modified
+     * while this is running.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(final EntryConsumer<? super V> consumer) {
+        for (int i = 0; i < this.values.length; i++) {
+            final Object value = this.values[i];
+            if (value != null) {
+                consumer.accept(this.keys[i], (V) value);
+            }
+        }
+    }
+
+    private int indexOf(final long key) {
+        final int mask = this.keys.length - 1;
+        int index = hash(key) & mask;
+
+        while (this.values[index] != null) {
+            if (this.keys[index] == key) {
+                return index;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Empties the slot at the provided index, moving any later entries in the same probe sequence back into it so that
+     * lookups never stop at a gap too early.
+     */
+    private void removeAt(final int removedIndex) {
+        final int mask = this.keys.length - 1;
+        int gap = removedIndex;
+        int index = (gap + 1) & mask;
+
+        while (this.values[index] != null) {
+            final int ideal = hash(this.keys[index]) & mask;
+
+            // The entry can move into the gap if its ideal slot is not between the gap and its current slot.
+            if (((index - ideal) & mask) >= ((index - gap) & mask)) {
+                this.keys[gap] = this.keys[index];
+                this.values[gap] = this.values[index];
+                gap = index;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        this.values[gap] = null;
+        this.size--;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(final int capacity) {
+        final long[] oldKeys = this.keys;
+        final Object[] oldValues = this.values;
+
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.size = 0;
+
+        for (int i = 0; i < oldValues.length; i++) {
+            final Object value = oldValues[i];
+            if (value != null) {
+                this.put(oldKeys[i], (V) value);
+            }
+        }
+    }
+
+    /**
+     * Returns the hash of a key, the key's ideal slot is this masked by the table's capacity minus one.
+     */
+    static int hash(final long key) {
+        // Keys are often sequential, so they are mixed to spread them across the table.
+        final long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    /**
+     * The type of the function called for each entry in a {@link LongObjectHashMap}.
+     */
+    public interface EntryConsumer<V> {
+        void accept(final long key, final V value);
+    }
+}
@@ -0,0 +1,72 @@
+package dev.caoimhe.jdiscordipc.internal.util;
+
+/**
+ * This class is internal to JDiscordIPC. You should not use this in your own application!
+ * <p>
+ * A rate limiter which allows at most {@code limit} operations within any window of time, no matter where the window
+ * starts.
+ * <p>
+ * The times of the last {@code limit} operations are kept in a ring. Another operation is allowed once the oldest of
+ * them has left the window. The limiter does not use a timer, the current time is passed in whenever an operation is
+ * attempted. This class is not thread-safe.
+ */
+public class SlidingWindowRateLimiter {
+    private final long windowNanos;
+
+    /**
+     * The times of the most recent operations, the oldest is at {@link #oldestIndex} once the ring is full.
+     */
+    private final long[] operationTimesNanos;
+
+    /**
+     * The number of operations which have been recorded, up to the size of the ring.
+     */
+    private int count;
+
+    private int oldestIndex;
+
+    /**
+     * Initializes a new {@link SlidingWindowRateLimiter}, which allows {@code limit} operations straight away.
+     *
+     * @param limit       The maximum number of operations within the window.
+     * @param windowNanos The length of the window.
+     */
+    public SlidingWindowRateLimiter(final int limit, final long windowNanos) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+
+        if (windowNanos <= 0) {
+            throw new IllegalArgumentException("windowNanos must be positive");
+        }
+
+        this.windowNanos = windowNanos;
+        this.operationTimesNanos = new long[limit];
+        this.count = 0;
+        this.oldestIndex = 0;
+    }
+
+    /**
+     * Attempts to perform an operation, recording it if the limit allows it.
+     *
+     * @param nowNanos The current time, from {@link System#nanoTime()}.
+     * @return Zero if the operation is allowed, otherwise the number of nanoseconds until it will be.
+     */
+    public long tryAcquire(final long nowNanos) {
+        if (this.count < this.operationTimesNanos.length) {
+            this.operationTimesNanos[(this.oldestIndex + this.count) % this.operationTimesNanos.length] = nowNanos;
+            this.count++;
+            return 0;
+        }
+
+        // The oldest operation must have left the window, so that the new one is still at most the limit within it.
+        final long allowedAtNanos = this.operationTimesNanos[this.oldestIndex] + this.windowNanos;
+        if (nowNanos - allowedAtNanos < 0) {
+            return allowedAtNanos - nowNanos;
+        }
+
+        this.operationTimesNanos[this.oldestIndex] = nowNanos;
+        this.oldestIndex = (this.oldestIndex + 1) % this.operationTimesNanos.length;
+        return 0;
+    }
+}
@@ -0,0 +1,251 @@
+package dev.caoimhe.jdiscordipc.packet;
+
+import dev.caoimhe.jdiscordipc.exception.JDiscordIPCException;
+import dev.caoimhe.jdiscordipc.internal.util.HashedTimingWheel;
+import dev.caoimhe.jdiscordipc.internal.util.LongObjectHashMap;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.IncomingFramePacket;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of requests which have been sent to the Discord client, but have not received a response yet.
+ * <p>
+ * Requests are identified by a numeric ID, which increases with every request. The table is bounded: once it holds
+ * {@link #capacity()} requests, registering another one evicts the oldest (the one with the lowest ID). Every
+ * request also expires after its timeout. Expiry is driven by a single {@link HashedTimingWheel} thread, instead of a
+ * timer per request.
+ * <p>
+ * A request's future is always completed without holding the table's lock, so callbacks attached to it can safely send
+ * more requests.
+ *
+ * @see PacketManager#sendRequest(dev.caoimhe.jdiscordipc.packet.impl.frame.OutgoingFramePacket)
+ */
+public class InFlightRequestTable {
+    /**
+     * The default number of requests that can be waiting for a response at once.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * The requests which are waiting for a response, keyed by their ID.
+     */
+    private final LongObjectHashMap<Entry> entries;
+
+    /**
+     * Fails requests which have not received a response within their timeout.
+     */
+    private final HashedTimingWheel timingWheel;
+
+    private final int capacity;
+    private final AtomicLong expiredCount;
+    private final AtomicLong evictedCount;
+
+    /**
+     * Initializes a new {@link InFlightRequestTable} with a capacity of {@link #DEFAULT_CAPACITY}.
+     */
+    public InFlightRequestTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Initializes a new {@link InFlightRequestTable}, with its own {@link HashedTimingWheel} to expire requests.
+     *
+     * @param capacity The number of requests that can be waiting for a response at once.
+     */
+    public InFlightRequestTable(final int capacity) {
+        this(capacity, new HashedTimingWheel("JDiscordIPC-Request-Timeouts"));
+    }
+
+    /**
+     * Initializes a new {@link InFlightRequestTable}.
+     *
+     * @param capacity    The number of requests that can be waiting for a response at once.
+     * @param timingWheel Expires requests which have not received a response within their timeout. This may be shared
+     *                    with other users of the wheel.
+     */
+    public InFlightRequestTable(final int capacity, final HashedTimingWheel timingWheel) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        this.entries = new LongObjectHashMap<>(capacity);
+        this.timingWheel = timingWheel;
+        this.capacity = capacity;
+        this.expiredCount = new AtomicLong();
+        this.evictedCount = new AtomicLong();
+    }
+
+    /**
+     * Registers a request which is about to be sent.
+     * <p>
+     * If the table is full, the oldest request is failed with a
+     * {@link JDiscordIPCException.TooManyPendingRequestsException} to make room.
+     *
+     * @param requestId The ID of the request. IDs should increase with every request, as the lowest is evicted first.
+     * @param timeout   The amount of time to wait for a response, before failing the request with a
+     *                  {@link JDiscordIPCException.RequestTimeoutException}.
+     * @return The future to complete with the request's response.
+     */
+    CompletableFuture<IncomingFramePacket<?>> register(final long requestId, final Duration timeout) {
+        final CompletableFuture<IncomingFramePacket<?>> future = new CompletableFuture<>();
+        final Entry entry = new Entry(future);
+
+        final Entry evicted;
+        synchronized (this) {
+            evicted = this.entries.size() >= this.capacity ? this.removeEldest() : null;
+
+            // The timeout must be scheduled before the entry is visible, as a response could complete it immediately.
+            entry.timeout = this.timingWheel.schedule(() -> this.expire(requestId, entry, timeout), timeout.toNanos(), TimeUnit.NANOSECONDS);
+            this.entries.put(requestId, entry);
+        }
+
+        // However the future is completed (e.g. the caller cancelling it), nothing needs to keep track of it anymore.
+        future.whenComplete((response, throwable) -> this.remove(requestId, entry));
+
+        if (evicted != null) {
+            this.evictedCount.incrementAndGet();
+            evicted.future.completeExceptionally(new JDiscordIPCException.TooManyPendingRequestsException(this.capacity));
+        }
+
+        return future;
+    }
+
+    /**
+     * Completes the request with the provided ID.
+     *
+     * @return Whether a request with the ID was waiting for a response.
+     */
+    boolean complete(final long requestId, final IncomingFramePacket<?> response) {
+        final Entry entry;
+        synchronized (this) {
+            entry = this.entries.remove(requestId);
+        }
+
+        if (entry == null) {
+            return false;
+        }
+
+        entry.cancelTimeout();
+        entry.future.complete(response);
+        return true;
+    }
+
+    /**
+     * Fails every request which is waiting for a response with a {@link JDiscordIPCException.ConnectionClosedException}.
+     */
+    void failAll() {
+        final List<Entry> failed;
+        synchronized (this) {
+            failed = new ArrayList<>(this.entries.size());
+            this.entries.forEach((requestId, entry) -> failed.add(entry));
+            this.entries.clear();
+        }
+
+        for (final Entry entry : failed) {
+            entry.cancelTimeout();
+            entry.future.completeExceptionally(new JDiscordIPCException.ConnectionClosedException());
+        }
+    }
+
+    /**
+     * Returns the number of requests which are waiting for a response.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the number of requests that can be waiting for a response at once.
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of requests which were failed because they did not receive a response within their timeout.
+     */
+    public long expiredCount() {
+        return this.expiredCount.get();
+    }
+
+    /**
+     * Returns the number of requests which were failed to make room for newer requests.
+     */
+    public long evictedCount() {
+        return this.evictedCount.get();
+    }
+
+    /**
+     * Called by the timing wheel once a request's timeout has been reached.
+     */
+    private void expire(final long requestId, final Entry entry, final Duration timeout) {
+        if (!this.remove(requestId, entry)) {
+            return;
+        }
+
+        this.expiredCount.incrementAndGet();
+        entry.future.completeExceptionally(new JDiscordIPCException.RequestTimeoutException(Long.toString(requestId), timeout));
+    }
+
+    /**
+     * Removes the provided entry if it is still registered under the ID.
+     *
+     * @return Whether the entry was removed.
+     */
+    private boolean remove(final long requestId, final Entry entry) {
+        synchronized (this) {
+            if (this.entries.get(requestId) != entry) {
+                return false;
+            }
+
+            this.entries.remove(requestId);
+        }
+
+        entry.cancelTimeout();
+        return true;
+    }
+
+    /**
+     * Removes the oldest entry, which is the one with the lowest ID. The caller must hold the lock on this table.
+     * <p>
+     * This has to look at every entry, but it only happens when the table is full, which should be rare.
+     */
+    private Entry removeEldest() {
+        final long[] eldestRequestId = {Long.MAX_VALUE};
+        this.entries.forEach((requestId, entry) -> eldestRequestId[0] = Math.min(eldestRequestId[0], requestId));
+
+        final Entry eldest = this.entries.remove(eldestRequestId[0]);
+        if (eldest == null) {
+            throw new IllegalStateException("InFlightRequestTable is full without any entries");
+        }
+
+        eldest.cancelTimeout();
+        return eldest;
+    }
+
+    /**
+     * A request which is waiting for a response.
+     */
+    private static class Entry {
+        private final CompletableFuture<IncomingFramePacket<?>> future;
+        private HashedTimingWheel.@Nullable Timeout timeout;
+
+        private Entry(final CompletableFuture<IncomingFramePacket<?>> future) {
+            this.future = future;
+            this.timeout = null;
+        }
+
+        private void cancelTimeout() {
+            final HashedTimingWheel.Timeout timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package dev.caoimhe.jdiscordipc.packet;
 
+import org.jspecify.annotations.Nullable;
+
 /**
  * A message contained within a packet being sent to or read from the Discord client.
  */
@@ -8,4 +10,14 @@ public interface Packet {
      * The opcode for this packet.
      */
     PacketOpcode opcode();
+
+    /**
+     * The key used to find an older, queued packet that this packet makes redundant, see
+     * {@link dev.caoimhe.jdiscordipc.BackpressurePolicy#REPLACE_BY_KEY}.
+     *
+     * @return The key, or null if this packet should never replace another packet.
+     */
+    default @Nullable Object replacementKey() {
+        return null;
+    }
 }
@@ -1,5 +1,7 @@
 package dev.caoimhe.jdiscordipc.packet;
 
+import dev.caoimhe.jdiscordipc.event.model.Event;
+
 /**
  * Responsible for handling incoming packets, and dealing with any errors that occur during the packet handling process.
  */
@@ -13,4 +15,16 @@ public interface PacketHandler {
      * Called the end of the underlying socket is reached, i.e. the connection was forcefully terminated.
      */
     void handleEOF();
+
+    /**
+     * Returns whether this handler is interested in events of the provided type.
+     * <p>
+     * This is asked before an incoming event is deserialized. If this returns false, the event is dropped and never
+     * reaches {@link #handlePacket(Packet)}.
+     *
+     * @param eventType The type of the incoming event.
+     */
+    default boolean isSubscribedTo(final Class<? extends Event> eventType) {
+        return true;
+    }
 }
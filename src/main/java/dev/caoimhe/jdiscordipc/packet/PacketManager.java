@@ -1,26 +1,43 @@
 package dev.caoimhe.jdiscordipc.packet;
 
+import dev.caoimhe.jdiscordipc.BackpressurePolicy;
+import dev.caoimhe.jdiscordipc.exception.JDiscordIPCException;
+import dev.caoimhe.jdiscordipc.internal.util.HashedTimingWheel;
 import dev.caoimhe.jdiscordipc.packet.codec.PacketCodec;
+import dev.caoimhe.jdiscordipc.packet.codec.PacketRegistry;
 import dev.caoimhe.jdiscordipc.packet.impl.frame.IncomingFramePacket;
 import dev.caoimhe.jdiscordipc.packet.impl.frame.OutgoingFramePacket;
 import dev.caoimhe.jdiscordipc.socket.SystemSocket;
 import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
  * Responsible for sending packets to and reading packets from a {@link SystemSocket}.
  */
 public class PacketManager {
+    /**
+     * The amount of time to wait for a response to a request, if a timeout is not provided.
+     *
+     * @see #sendRequest(OutgoingFramePacket)
+     */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
     /**
      * The {@link PacketCodec} to read and write packets to/from.
      */
     private final PacketCodec codec;
 
+    /**
+     * Writes outgoing packets on a dedicated thread.
+     */
+    private final PacketWriter packetWriter;
+
     /**
      * The {@link PacketHandler} instance to dispatch incoming packets to.
      */
@@ -32,9 +49,28 @@ public class PacketManager {
     private @Nullable Thread packetReadingThread;
 
     /**
-     * A map of packet IDs to {@link Consumer}s for their response.
+     * The prefix of the unique ID of every request sent by this manager, which is followed by the request's ID.
+     * <p>
+     * This is built once, so that building a unique ID only needs to append a number to it.
+     */
+    private final String requestUniqueIdPrefix;
+
+    /**
+     * The ID of the next request to be sent.
      */
-    private final Map<String, Consumer<IncomingFramePacket<?>>> responseConsumers;
+    private final AtomicLong nextRequestId;
+
+    /**
+     * The requests which are waiting for a response.
+     * <p>
+     * This is written to by any thread sending a request, and read from by the packet reading thread.
+     */
+    private final InFlightRequestTable inFlightRequests;
+
+    /**
+     * The amount of time to wait for a response to a request, if a timeout is not provided.
+     */
+    private final Duration defaultRequestTimeout;
 
     /**
      * The {@link SystemSocket} used for the {@link PacketCodec}.
@@ -47,61 +83,227 @@ public class PacketManager {
      * @param systemSocket The system socket to read to/write from.
      */
     public PacketManager(final PacketHandler packetHandler, final SystemSocket systemSocket) {
-        this.codec = PacketCodec.from(systemSocket);
+        this(
+            packetHandler,
+            systemSocket,
+            false,
+            PacketRegistry.withDefaults(),
+            false,
+            DEFAULT_REQUEST_TIMEOUT,
+            PacketWriter.DEFAULT_CAPACITY,
+            BackpressurePolicy.DROP_OLDEST,
+            new HashedTimingWheel("JDiscordIPC-Request-Timeouts")
+        );
+    }
+
+    /**
+     * Initializes a new {@link PacketManager}.
+     *
+     * @param systemSocket          The system socket to read to/write from.
+     * @param directBuffers         Whether the {@link PacketCodec} should use direct buffers, if the socket supports
+     *                              them.
+     * @param packetRegistry        Describes how each type of incoming packet is decoded.
+     * @param lazyFrameDecoding     Whether the data of incoming frame packets should only be deserialized when it is
+     *                              first requested.
+     * @param defaultRequestTimeout The amount of time to wait for a response to a request, if a timeout is not
+     *                              provided.
+     * @param outgoingQueueCapacity The number of outgoing frame packets that can be waiting to be written at once.
+     * @param backpressurePolicy    What happens when a packet is sent while the outgoing packet queue is full.
+     * @param timingWheel           Expires requests which have not received a response within their timeout. This
+     *                              may be shared with other users of the wheel.
+     */
+    public PacketManager(
+        final PacketHandler packetHandler,
+        final SystemSocket systemSocket,
+        final boolean directBuffers,
+        final PacketRegistry packetRegistry,
+        final boolean lazyFrameDecoding,
+        final Duration defaultRequestTimeout,
+        final int outgoingQueueCapacity,
+        final BackpressurePolicy backpressurePolicy,
+        final HashedTimingWheel timingWheel
+    ) {
+        // Events that the packet handler is not interested in can be dropped before they are deserialized.
+        this.codec = PacketCodec.from(
+            systemSocket,
+            directBuffers,
+            packetRegistry,
+            lazyFrameDecoding,
+            packetHandler::isSubscribedTo
+        );
+        this.packetWriter = new PacketWriter(this.codec, outgoingQueueCapacity, backpressurePolicy);
         this.packetHandler = packetHandler;
         this.packetReadingThread = null;
-        this.responseConsumers = new HashMap<>();
+        this.requestUniqueIdPrefix = "jdiscordipc-" + Integer.toHexString(ThreadLocalRandom.current().nextInt()) + "-";
+        this.nextRequestId = new AtomicLong(1);
+        this.inFlightRequests = new InFlightRequestTable(InFlightRequestTable.DEFAULT_CAPACITY, timingWheel);
+        this.defaultRequestTimeout = defaultRequestTimeout;
         this.systemSocket = systemSocket;
     }
 
+    /**
+     * Returns the {@link PacketCodec} used to read and write packets.
+     */
+    public PacketCodec codec() {
+        return this.codec;
+    }
+
+    /**
+     * Returns the {@link PacketWriter} used to write outgoing packets.
+     */
+    public PacketWriter packetWriter() {
+        return this.packetWriter;
+    }
+
     /**
      * Sends a packet to the Discord client.
      * <p>
-     * This method may block until all bytes are written to the underlying socket. If an exception occurs when attempting
-     * to write to the underlying socket, this method will do nothing.
+     * The packet is queued and written by the writer thread, see {@link PacketWriter}. Control packets (e.g. pongs) are
+     * written ahead of any queued frame packets. This method only blocks if the queue is full and the
+     * {@link BackpressurePolicy} is {@link BackpressurePolicy#BLOCK}.
      *
+     * @return A future which is completed once the packet has been written, or completed exceptionally if it could not
+     * be written. This can safely be ignored.
      * @see #sendPacket(OutgoingFramePacket, Consumer)
      */
-    public void sendPacket(final Packet packet) {
-        try {
-            this.codec.write(packet);
-        } catch (final IOException ignored) {
-        }
+    public CompletableFuture<Void> sendPacket(final Packet packet) {
+        return this.packetWriter.enqueue(packet);
+    }
+
+    /**
+     * Sends a packet to the Discord client, without ever blocking.
+     * <p>
+     * This must be used instead of {@link #sendPacket(Packet)} on the library's own threads (e.g. the timer thread), so
+     * that a full queue can not stall them. See {@link PacketWriter#tryEnqueue(Packet)}.
+     *
+     * @return A future which is completed once the packet has been written, or completed exceptionally if it could not
+     * be written. This can safely be ignored.
+     */
+    public CompletableFuture<Void> trySendPacket(final Packet packet) {
+        return this.packetWriter.tryEnqueue(packet);
     }
 
     /**
      * Sends a packet to the Discord client, expecting a response with the same unique ID as it.
+     * <p>
+     * If a response is not received within the default request timeout, the callback is never called.
      *
      * @param packet   The packet to send.
      * @param callback The {@link Consumer} to call when a response packet is received for it.
+     * @see #sendRequest(OutgoingFramePacket)
      * @see #sendPacket(Packet)
      */
     public void sendPacket(final OutgoingFramePacket<?> packet, final Consumer<IncomingFramePacket<?>> callback) {
+        this.sendRequest(packet).thenAccept(callback);
+    }
+
+    /**
+     * Sends a packet to the Discord client, returning a future for the response with the same unique ID as it.
+     * <p>
+     * The request times out after the default request timeout, see {@link #sendRequest(OutgoingFramePacket, Duration)}.
+     *
+     * @param packet The packet to send.
+     */
+    public CompletableFuture<IncomingFramePacket<?>> sendRequest(final OutgoingFramePacket<?> packet) {
+        return this.sendRequest(packet, this.defaultRequestTimeout);
+    }
+
+    /**
+     * Sends a packet to the Discord client, returning a future for the response with the same unique ID as it.
+     * <p>
+     * The returned future is completed exceptionally if:
+     * <ul>
+     *     <li>The packet could not be written, with the {@link IOException} that occurred.</li>
+     *     <li>A response is not received within the timeout, with a
+     *     {@link JDiscordIPCException.RequestTimeoutException}.</li>
+     *     <li>The connection is closed before a response is received, with a
+     *     {@link JDiscordIPCException.ConnectionClosedException}.</li>
+     *     <li>Too many other requests are waiting for a response, with a
+     *     {@link JDiscordIPCException.TooManyPendingRequestsException}, see {@link InFlightRequestTable}.</li>
+     *     <li>The packet was dropped from the outgoing packet queue, with a
+     *     {@link JDiscordIPCException.PacketDroppedException}, see {@link BackpressurePolicy}.</li>
+     * </ul>
+     * Cancelling the returned future stops waiting for a response.
+     *
+     * @param packet  The packet to send.
+     * @param timeout The amount of time to wait for a response.
+     */
+    public CompletableFuture<IncomingFramePacket<?>> sendRequest(final OutgoingFramePacket<?> packet, final Duration timeout) {
+        return this.sendRequest(packet, timeout, true);
+    }
+
+    /**
+     * Sends a packet to the Discord client without ever blocking, returning a future for the response with the same
+     * unique ID as it.
+     * <p>
+     * This is the same as {@link #sendRequest(OutgoingFramePacket)}, except that the packet is queued with
+     * {@link #trySendPacket(Packet)}. If the queue is full, the returned future is completed exceptionally with a
+     * {@link JDiscordIPCException.PacketDroppedException}.
+     *
+     * @param packet The packet to send.
+     */
+    public CompletableFuture<IncomingFramePacket<?>> trySendRequest(final OutgoingFramePacket<?> packet) {
+        return this.sendRequest(packet, this.defaultRequestTimeout, false);
+    }
+
+    private CompletableFuture<IncomingFramePacket<?>> sendRequest(final OutgoingFramePacket<?> packet, final Duration timeout, final boolean mayBlock) {
         // The packet must have a unique ID if we are expecting a response.
-        final String packetUniqueId = "jdiscordipc-packet-" + UUID.randomUUID();
-        packet.setUniqueId(packetUniqueId);
+        final long requestId = this.nextRequestId.getAndIncrement();
+        packet.setUniqueId(this.requestUniqueIdPrefix + requestId);
+
+        // The request must be registered before the packet is sent, the response could arrive before we return.
+        final CompletableFuture<IncomingFramePacket<?>> future = this.inFlightRequests.register(requestId, timeout);
 
-        // We can now register the consumer with the response consumers.
-        this.responseConsumers.put(packetUniqueId, callback);
+        final CompletableFuture<Void> written = mayBlock ? this.sendPacket(packet) : this.trySendPacket(packet);
+        written.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+            }
+        });
 
-        // And finally, send the packet to the discord client.
-        this.sendPacket(packet);
+        return future;
+    }
+
+    /**
+     * Returns the table of requests which are waiting for a response.
+     * <p>
+     * This is mostly useful for inspecting statistics, like {@link InFlightRequestTable#expiredCount()}.
+     */
+    public InFlightRequestTable inFlightRequests() {
+        return this.inFlightRequests;
     }
 
     /**
      * Starts reading incoming packets from the Discord client.
      * <p>
      * If a thread was previously started for this (i.e. this method was called before), it will be interrupted and
-     * replaced.
+     * replaced. Anything which was partially read or still waiting to be written on a previous connection is discarded.
      *
      * @see #stopReadingIncomingPackets()
      */
     public void startReadingIncomingPackets() {
+        this.startReadingIncomingPackets(null);
+    }
+
+    /**
+     * Starts reading incoming packets from the Discord client, handling a packet which was already read from the
+     * connection before anything else.
+     * <p>
+     * This is used when a connection was established somewhere else, and a packet (e.g. the ready event) was read from
+     * it before it was handed over.
+     *
+     * @param firstPacket The packet to handle first, or null if there isn't one.
+     * @see #startReadingIncomingPackets()
+     */
+    public void startReadingIncomingPackets(final @Nullable Packet firstPacket) {
         // If an existing thread is already running, let's get rid of it and start a new one.
         this.stopReadingIncomingPackets();
 
+        // This may be a new connection, anything that was partially read from the old one must be thrown away.
+        this.codec.reset();
+
         // Now that we've connected, we can start a background task to start consuming messages from Discord.
-        this.packetReadingThread = new Thread(this::readPackets, "JDiscordIPC-Packet-Reading");
+        this.packetReadingThread = new Thread(() -> this.readPackets(firstPacket), "JDiscordIPC-Packet-Reading");
         this.packetReadingThread.setDaemon(false);
         this.packetReadingThread.start();
     }
@@ -116,12 +318,21 @@ public class PacketManager {
             this.packetReadingThread.interrupt();
             this.packetReadingThread = null;
         }
+
+        // Responses will never be read for any requests that are still waiting, and packets which have not been written
+        // yet were meant for the old connection.
+        this.inFlightRequests.failAll();
+        this.packetWriter.discardQueuedPackets();
     }
 
     /**
      * Attempts to read packets from the Discord client, handing them off to the registered {@link PacketHandler}.
      */
-    private void readPackets() {
+    private void readPackets(final @Nullable Packet firstPacket) {
+        if (firstPacket != null) {
+            this.handlePacket(firstPacket);
+        }
+
         while (this.systemSocket.isConnected()) {
             // If the current thread has been interrupted, we can just return immediately.
             if (Thread.currentThread().isInterrupted()) {
@@ -139,42 +350,81 @@ public class PacketManager {
 
             // If the read packet is null, the end of the stream was reached.
             if (packet == null) {
+                this.inFlightRequests.failAll();
                 this.packetHandler.handleEOF();
                 return;
             }
 
-            try {
-                // If any response consumers are interested in the packet, it can go to them instead.
-                if (!this.notifyResponseConsumerOfPacket(packet)) {
-                    // Otherwise, we can tell the packet handler to deal with it.
-                    this.packetHandler.handlePacket(packet);
-                }
-            } catch (final Exception e) {
-                System.err.println("Failed to handle packet: " + e);
+            this.handlePacket(packet);
+        }
+    }
+
+    /**
+     * Hands a packet to the request waiting for it as a response, or to the {@link PacketHandler} otherwise.
+     */
+    private void handlePacket(final Packet packet) {
+        try {
+            // If a request is waiting for this packet as its response, it can go to them instead.
+            if (!this.completePendingRequest(packet)) {
+                // Otherwise, we can tell the packet handler to deal with it.
+                this.packetHandler.handlePacket(packet);
             }
+        } catch (final Exception e) {
+            System.err.println("Failed to handle packet: " + e);
         }
     }
 
-    private boolean notifyResponseConsumerOfPacket(final Packet packet) {
-        // If the packet is not a frame packet, there cannot be any consumers.
+    private boolean completePendingRequest(final Packet packet) {
+        // If the packet is not a frame packet, it cannot be a response.
         if (!(packet instanceof IncomingFramePacket<?>)) {
             return false;
         }
 
-        // If the packet does not have a unique ID, we do not know which consumer to notify.
+        // If the packet does not have a unique ID, we do not know which request it is a response to.
         final IncomingFramePacket<?> incomingFramePacket = (IncomingFramePacket<?>) packet;
         final String packetUniqueId = incomingFramePacket.uniqueId();
         if (packetUniqueId == null) {
             return false;
         }
 
-        // The packet has a unique ID, if a consumer is registered, let them know!
-        final Consumer<IncomingFramePacket<?>> responseConsumer = this.responseConsumers.remove(packetUniqueId);
-        if (responseConsumer == null) {
+        // If the unique ID was not created by us, it cannot be a response to one of our requests.
+        final long requestId = this.requestIdFromUniqueId(packetUniqueId);
+        if (requestId == -1) {
             return false;
         }
 
-        responseConsumer.accept(incomingFramePacket);
-        return true;
+        // The packet has a unique ID, if a request is waiting for it, let them know!
+        return this.inFlightRequests.complete(requestId, incomingFramePacket);
+    }
+
+    /**
+     * Extracts the request ID from a unique ID created by {@link #sendRequest(OutgoingFramePacket, Duration)}, without
+     * allocating.
+     *
+     * @return The request ID, or -1 if the unique ID was not created by this manager.
+     */
+    private long requestIdFromUniqueId(final String uniqueId) {
+        final int prefixLength = this.requestUniqueIdPrefix.length();
+        if (!uniqueId.startsWith(this.requestUniqueIdPrefix) || uniqueId.length() == prefixLength) {
+            return -1;
+        }
+
+        // Request IDs start at one, and will never come close to overflowing.
+        final int maximumDigits = 18;
+        if (uniqueId.length() - prefixLength > maximumDigits) {
+            return -1;
+        }
+
+        long requestId = 0;
+        for (int i = prefixLength; i < uniqueId.length(); i++) {
+            final char character = uniqueId.charAt(i);
+            if (character < '0' || character > '9') {
+                return -1;
+            }
+
+            requestId = requestId * 10 + (character - '0');
+        }
+
+        return requestId;
     }
 }
@@ -0,0 +1,562 @@
+package dev.caoimhe.jdiscordipc.packet;
+
+import dev.caoimhe.jdiscordipc.BackpressurePolicy;
+import dev.caoimhe.jdiscordipc.exception.JDiscordIPCException;
+import dev.caoimhe.jdiscordipc.packet.codec.PacketCodec;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes outgoing packets on a dedicated thread.
+ * <p>
+ * Any thread can queue a packet through {@link #enqueue(Packet)}. A single writer thread drains the queue: every packet
+ * that is queued when it wakes up is encoded back-to-back and written with a single call to the socket (see
+ * {@link PacketCodec#write(List, PacketCodec.EncodeFailureListener)}). This also means that writes from different threads can never
+ * interleave on the socket.
+ * <p>
+ * Packets are queued in one of two {@link Lane}s. Control packets (e.g. a pong sent in reply to a ping) are always
+ * written before any frame packets that are queued at the same time, so that a backlog of activity updates can not
+ * delay them.
+ * <p>
+ * The frame lane is bounded, so that a Discord client which has stopped reading from the socket can not cause packets
+ * to pile up in memory. What happens when it is full is decided by its {@link BackpressurePolicy}. Unless the policy is
+ * {@link BackpressurePolicy#BLOCK}, queueing a packet never blocks. Packets queued by the library's own threads (e.g. a
+ * delayed activity update sent by the timer thread) must use {@link #tryEnqueue(Packet)}, which never blocks.
+ * <p>
+ * The control lane is not bounded, control packets are never dropped and queueing one never blocks. A dropped handshake
+ * or pong would break the connection, and the reading thread must not block while replying to a ping. Only a handful
+ * of control packets are sent per connection, so they can't pile up like frame packets.
+ * <p>
+ * The writer thread is started when the first packet is queued. While the queue is empty, it waits.
+ */
+public class PacketWriter {
+    /**
+     * The default number of packets that can be waiting to be written at once, in the frame lane.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * The codec to encode and write packets with.
+     */
+    private final PacketCodec codec;
+
+    /**
+     * The packets waiting to be written in the {@link Lane#CONTROL} lane, in the order that they were queued. This is
+     * guarded by {@link #lock}.
+     */
+    private final ArrayDeque<QueuedPacket> controlQueue;
+
+    /**
+     * The packets waiting to be written in the {@link Lane#FRAME} lane, in the order that they were queued. This is
+     * guarded by {@link #lock}.
+     */
+    private final ArrayDeque<QueuedPacket> frameQueue;
+
+    private final ReentrantLock lock;
+
+    /**
+     * Signalled when a packet is queued, the writer thread waits on this while both lanes are empty.
+     */
+    private final Condition notEmpty;
+
+    /**
+     * Signalled when packets are drained, threads using {@link BackpressurePolicy#BLOCK} wait on this while their lane is
+     * full.
+     */
+    private final Condition notFull;
+
+    private final int capacity;
+    private final BackpressurePolicy backpressurePolicy;
+
+    private final LaneStatistics controlStatistics;
+    private final LaneStatistics frameStatistics;
+
+    private final AtomicLong writeCount;
+    private final AtomicLong droppedPacketCount;
+    private final AtomicLong replacedPacketCount;
+
+    private @Nullable Thread writerThread;
+
+    /**
+     * Initializes a new {@link PacketWriter} with a capacity of {@link #DEFAULT_CAPACITY}, which drops the oldest packet
+     * when it is full.
+     *
+     * @param codec The codec to encode and write packets with.
+     */
+    public PacketWriter(final PacketCodec codec) {
+        this(codec, DEFAULT_CAPACITY, BackpressurePolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Initializes a new {@link PacketWriter}.
+     *
+     * @param codec              The codec to encode and write packets with.
+     * @param capacity           The number of packets that can be waiting to be written at once, in the frame lane.
+     * @param backpressurePolicy What happens when a frame packet is queued while its lane is full.
+     */
+    public PacketWriter(final PacketCodec codec, final int capacity, final BackpressurePolicy backpressurePolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        this.codec = codec;
+        this.controlQueue = new ArrayDeque<>();
+        this.frameQueue = new ArrayDeque<>(capacity);
+        this.lock = new ReentrantLock();
+        this.notEmpty = this.lock.newCondition();
+        this.notFull = this.lock.newCondition();
+        this.capacity = capacity;
+        this.backpressurePolicy = backpressurePolicy;
+        this.controlStatistics = new LaneStatistics();
+        this.frameStatistics = new LaneStatistics();
+        this.writeCount = new AtomicLong();
+        this.droppedPacketCount = new AtomicLong();
+        this.replacedPacketCount = new AtomicLong();
+        this.writerThread = null;
+    }
+
+    /**
+     * Queues a packet to be written by the writer thread.
+     * <p>
+     * If the packet is dropped or replaced before it is written (see {@link BackpressurePolicy}), its future is
+     * completed exceptionally with a {@link JDiscordIPCException.PacketDroppedException}.
+     *
+     * @return A future which is completed once the packet has been written, or completed exceptionally if it could not
+     * be written. This can safely be ignored.
+     */
+    public CompletableFuture<Void> enqueue(final Packet packet) {
+        return this.enqueue(packet, true);
+    }
+
+    /**
+     * Queues a packet to be written by the writer thread, without ever blocking.
+     * <p>
+     * This is the same as {@link #enqueue(Packet)}, except that if the policy is {@link BackpressurePolicy#BLOCK} and the
+     * frame lane is full, the packet is dropped instead of waiting for space, like {@link BackpressurePolicy#DROP_NEWEST}.
+     *
+     * @return A future which is completed once the packet has been written, or completed exceptionally if it could not
+     * be written. This can safely be ignored.
+     */
+    public CompletableFuture<Void> tryEnqueue(final Packet packet) {
+        return this.enqueue(packet, false);
+    }
+
+    private CompletableFuture<Void> enqueue(final Packet packet, final boolean mayBlock) {
+        final QueuedPacket queuedPacket = new QueuedPacket(packet, Lane.of(packet));
+
+        // Futures are only completed once the lock has been released, so that their callbacks can't run while it's held.
+        QueuedPacket replaced = null;
+        QueuedPacket dropped = null;
+        this.lock.lock();
+        try {
+            this.startWriterThread();
+
+            if (this.backpressurePolicy == BackpressurePolicy.REPLACE_BY_KEY && queuedPacket.lane == Lane.FRAME) {
+                replaced = this.replace(queuedPacket);
+            }
+
+            if (replaced == null) {
+                dropped = this.offer(queuedPacket, mayBlock);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        if (replaced != null) {
+            this.replacedPacketCount.incrementAndGet();
+            replaced.future.completeExceptionally(new JDiscordIPCException.PacketDroppedException("it was replaced by a newer packet"));
+        }
+
+        if (dropped != null) {
+            this.droppedPacketCount.incrementAndGet();
+            dropped.future.completeExceptionally(new JDiscordIPCException.PacketDroppedException("the outgoing packet queue was full"));
+        }
+
+        return queuedPacket.future;
+    }
+
+    /**
+     * Discards every packet which is waiting to be written, completing their futures exceptionally with a
+     * {@link JDiscordIPCException.PacketDroppedException}.
+     * <p>
+     * This is used when the connection is closed, so that packets meant for the old connection are not written to the
+     * next one before its handshake.
+     *
+     * @return The number of packets which were discarded.
+     */
+    public int discardQueuedPackets() {
+        final List<QueuedPacket> discarded = new ArrayList<>();
+        final List<Packet> packets = new ArrayList<>();
+        this.lock.lock();
+        try {
+            drainTo(this.controlQueue, discarded, packets);
+            drainTo(this.frameQueue, discarded, packets);
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        for (final QueuedPacket queuedPacket : discarded) {
+            this.droppedPacketCount.incrementAndGet();
+            queuedPacket.future.completeExceptionally(new JDiscordIPCException.PacketDroppedException("the connection was closed"));
+        }
+
+        return discarded.size();
+    }
+
+    /**
+     * Returns the number of packets waiting to be written, across both lanes.
+     */
+    public int queuedPacketCount() {
+        this.lock.lock();
+        try {
+            return this.controlQueue.size() + this.frameQueue.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of packets waiting to be written in the provided lane.
+     */
+    public int queuedPacketCount(final Lane lane) {
+        this.lock.lock();
+        try {
+            return this.queueFor(lane).size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of packets that can be waiting to be written at once, in the frame lane.
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of writes made to the socket. Comparing this with {@link #packetCount()} shows how many packets
+     * were coalesced into each write.
+     */
+    public long writeCount() {
+        return this.writeCount.get();
+    }
+
+    /**
+     * Returns the number of packets which have been written, or failed to be written, across both lanes.
+     */
+    public long packetCount() {
+        return this.controlStatistics.packetCount() + this.frameStatistics.packetCount();
+    }
+
+    /**
+     * Returns the number of packets which were dropped because their lane was full.
+     */
+    public long droppedPacketCount() {
+        return this.droppedPacketCount.get();
+    }
+
+    /**
+     * Returns the number of queued packets which were replaced by a newer packet, see
+     * {@link BackpressurePolicy#REPLACE_BY_KEY}.
+     */
+    public long replacedPacketCount() {
+        return this.replacedPacketCount.get();
+    }
+
+    /**
+     * Returns the statistics for the provided lane, including how long its packets waited to be written.
+     */
+    public LaneStatistics statistics(final Lane lane) {
+        return lane == Lane.CONTROL ? this.controlStatistics : this.frameStatistics;
+    }
+
+    /**
+     * Adds a packet to the end of its lane, applying the {@link #backpressurePolicy} if it is the frame lane and it is
+     * full. The caller must hold the {@link #lock}.
+     *
+     * @param mayBlock Whether the {@link BackpressurePolicy#BLOCK} policy may wait for space in the lane. If not, or if the
+     *                 thread is interrupted while waiting, the provided packet is dropped.
+     * @return The packet which was dropped (which may be the provided packet), or null if nothing was dropped.
+     */
+    private @Nullable QueuedPacket offer(final QueuedPacket queuedPacket, final boolean mayBlock) {
+        final ArrayDeque<QueuedPacket> queue = this.queueFor(queuedPacket.lane);
+
+        QueuedPacket dropped = null;
+        if (queuedPacket.lane == Lane.FRAME && queue.size() >= this.capacity) {
+            switch (this.backpressurePolicy) {
+                case BLOCK:
+                    if (!mayBlock || !this.awaitNotFull(queue)) {
+                        return queuedPacket;
+                    }
+
+                    break;
+
+                case DROP_OLDEST:
+                    dropped = queue.pollFirst();
+                    break;
+
+                case DROP_NEWEST:
+                case REPLACE_BY_KEY:
+                    return queuedPacket;
+            }
+        }
+
+        queue.offerLast(queuedPacket);
+        this.notEmpty.signal();
+        return dropped;
+    }
+
+    /**
+     * Replaces the newest queued packet with the same replacement key as the provided packet, keeping its position in
+     * its lane. The caller must hold the {@link #lock}.
+     *
+     * @return The packet which was replaced, or null if nothing was replaced.
+     */
+    private @Nullable QueuedPacket replace(final QueuedPacket queuedPacket) {
+        final Object replacementKey = queuedPacket.packet.replacementKey();
+        if (replacementKey == null) {
+            return null;
+        }
+
+        final Iterator<QueuedPacket> iterator = this.queueFor(queuedPacket.lane).descendingIterator();
+        while (iterator.hasNext()) {
+            final QueuedPacket existing = iterator.next();
+            if (replacementKey.equals(existing.packet.replacementKey())) {
+                final QueuedPacket replaced = new QueuedPacket(existing.packet, existing.lane, existing.future, existing.queuedAtNanos);
+
+                // The position in the lane is kept, so the latency is measured from when the replaced packet was queued.
+                existing.packet = queuedPacket.packet;
+                existing.future = queuedPacket.future;
+                return replaced;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Waits until the provided lane has space for another packet. The caller must hold the {@link #lock}.
+     * <p>
+     * If the thread is interrupted while waiting, this stops waiting and the interrupt is preserved.
+     *
+     * @return Whether the lane has space, false if the thread was interrupted before it did.
+     */
+    private boolean awaitNotFull(final ArrayDeque<QueuedPacket> queue) {
+        while (queue.size() >= this.capacity) {
+            try {
+                this.notFull.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private ArrayDeque<QueuedPacket> queueFor(final Lane lane) {
+        return lane == Lane.CONTROL ? this.controlQueue : this.frameQueue;
+    }
+
+    /**
+     * Starts the writer thread if it has not been started yet. The caller must hold the {@link #lock}.
+     */
+    private void startWriterThread() {
+        if (this.writerThread != null) {
+            return;
+        }
+
+        this.writerThread = new Thread(this::run, "JDiscordIPC-Packet-Writing");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * The loop run by the writer thread.
+     */
+    private void run() {
+        final List<QueuedPacket> batch = new ArrayList<>();
+        final List<Packet> packets = new ArrayList<>();
+
+        while (true) {
+            this.lock.lock();
+            try {
+                while (this.controlQueue.isEmpty() && this.frameQueue.isEmpty()) {
+                    this.notEmpty.awaitUninterruptibly();
+                }
+
+                // Control packets go first, ahead of any frame packets that were queued before them.
+                drainTo(this.controlQueue, batch, packets);
+                drainTo(this.frameQueue, batch, packets);
+
+                this.notFull.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+
+            this.write(batch, packets);
+            batch.clear();
+            packets.clear();
+        }
+    }
+
+    /**
+     * Writes a batch of packets with a single write, completing their futures.
+     * <p>
+     * A packet which can't be encoded only fails its own future, the rest of the batch is still written.
+     */
+    private void write(final List<QueuedPacket> batch, final List<Packet> packets) {
+        final @Nullable Exception[] encodeFailures = new Exception[batch.size()];
+
+        Exception exception = null;
+        try {
+            if (this.codec.write(packets, (index, e) -> encodeFailures[index] = e) > 0) {
+                this.writeCount.incrementAndGet();
+            }
+        } catch (final Exception e) {
+            exception = e;
+        }
+
+        final long writtenAtNanos = System.nanoTime();
+        for (int i = 0; i < batch.size(); i++) {
+            final QueuedPacket queuedPacket = batch.get(i);
+            this.statistics(queuedPacket.lane).record(writtenAtNanos - queuedPacket.queuedAtNanos);
+
+            final Exception failure = encodeFailures[i] != null ? encodeFailures[i] : exception;
+            if (failure == null) {
+                queuedPacket.future.complete(null);
+            } else {
+                queuedPacket.future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static void drainTo(final ArrayDeque<QueuedPacket> queue, final List<QueuedPacket> batch, final List<Packet> packets) {
+        QueuedPacket queuedPacket;
+        while ((queuedPacket = queue.pollFirst()) != null) {
+            batch.add(queuedPacket);
+            packets.add(queuedPacket.packet);
+        }
+    }
+
+    /**
+     * The lanes that outgoing packets are queued in. Packets in the {@link #CONTROL} lane are always written before
+     * packets in the {@link #FRAME} lane.
+     */
+    public enum Lane {
+        /**
+         * Packets which manage the connection, i.e. handshakes, pings, pongs and close packets.
+         */
+        CONTROL,
+
+        /**
+         * Frame packets, i.e. commands such as activity updates.
+         */
+        FRAME;
+
+        /**
+         * Returns the lane that the provided packet is queued in.
+         */
+        public static Lane of(final Packet packet) {
+            return packet.opcode() == PacketOpcode.FRAME ? FRAME : CONTROL;
+        }
+    }
+
+    /**
+     * Statistics about the packets written from a {@link Lane}.
+     * <p>
+     * The latency of a packet is the time between it being queued and the write containing it finishing.
+     */
+    public static class LaneStatistics {
+        private final AtomicLong packetCount;
+        private final AtomicLong totalLatencyNanos;
+        private final AtomicLong maximumLatencyNanos;
+
+        private LaneStatistics() {
+            this.packetCount = new AtomicLong();
+            this.totalLatencyNanos = new AtomicLong();
+            this.maximumLatencyNanos = new AtomicLong();
+        }
+
+        /**
+         * Returns the number of packets from this lane which have been written, or failed to be written.
+         */
+        public long packetCount() {
+            return this.packetCount.get();
+        }
+
+        /**
+         * Returns the average latency of the packets from this lane, or {@link Duration#ZERO} if none have been written.
+         */
+        public Duration averageLatency() {
+            final long packetCount = this.packetCount.get();
+            if (packetCount == 0) {
+                return Duration.ZERO;
+            }
+
+            return Duration.ofNanos(this.totalLatencyNanos.get() / packetCount);
+        }
+
+        /**
+         * Returns the highest latency of a packet from this lane, or {@link Duration#ZERO} if none have been written.
+         */
+        public Duration maximumLatency() {
+            return Duration.ofNanos(this.maximumLatencyNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            return "LaneStatistics{packetCount=" + this.packetCount() +
+                ", averageLatency=" + TimeUnit.NANOSECONDS.toMicros(this.averageLatency().toNanos()) + "us" +
+                ", maximumLatency=" + TimeUnit.NANOSECONDS.toMicros(this.maximumLatencyNanos.get()) + "us}";
+        }
+
+        /**
+         * Records a packet which was written. This is only called by the writer thread, so the maximum does not need to
+         * be updated atomically.
+         */
+        private void record(final long latencyNanos) {
+            this.packetCount.incrementAndGet();
+            this.totalLatencyNanos.addAndGet(latencyNanos);
+
+            if (latencyNanos > this.maximumLatencyNanos.get()) {
+                this.maximumLatencyNanos.set(latencyNanos);
+            }
+        }
+    }
+
+    /**
+     * A packet waiting to be written, along with the future to complete once it has been.
+     * <p>
+     * The packet and future are swapped out when a newer packet replaces this one, see {@link #replace(QueuedPacket)}.
+     */
+    private static class QueuedPacket {
+        private final Lane lane;
+        private final long queuedAtNanos;
+        private Packet packet;
+        private CompletableFuture<Void> future;
+
+        private QueuedPacket(final Packet packet, final Lane lane) {
+            this(packet, lane, new CompletableFuture<>(), System.nanoTime());
+        }
+
+        private QueuedPacket(final Packet packet, final Lane lane, final CompletableFuture<Void> future, final long queuedAtNanos) {
+            this.lane = lane;
+            this.queuedAtNanos = queuedAtNanos;
+            this.packet = packet;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package dev.caoimhe.jdiscordipc.packet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A packet which writes its own JSON payload, instead of being serialized by Jackson.
+ * <p>
+ * This is used for packets whose payload is mostly made of bytes which have already been encoded, so that writing them
+ * is little more than a copy.
+ *
+ * @see dev.caoimhe.jdiscordipc.packet.codec.PacketCodec#write(Packet)
+ */
+public interface PreEncodedPacket extends Packet {
+    /**
+     * Writes the JSON payload of this packet to the provided stream, encoded in UTF-8.
+     */
+    void writePayload(final OutputStream outputStream) throws IOException;
+}
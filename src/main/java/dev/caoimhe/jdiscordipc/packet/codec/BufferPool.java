@@ -0,0 +1,194 @@
+package dev.caoimhe.jdiscordipc.packet.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of {@link ByteBuffer}s used by the {@link PacketCodec} when reading and writing packets.
+ * <p>
+ * Buffers are grouped into power-of-two size classes, starting at {@link #MINIMUM_SIZE_CLASS_BYTES} and ending at
+ * {@link #MAXIMUM_SIZE_CLASS_BYTES}. Requests larger than the biggest size class are allocated on demand and are never
+ * retained. The total number of bytes retained by the pool is bounded by the maximum passed during initialization, any
+ * buffers released once that bound is reached are left for the garbage collector.
+ * <p>
+ * This class is thread-safe.
+ */
+public class BufferPool {
+    /**
+     * The capacity of the smallest size class. Most packets sent by and to the Discord client fit within this.
+     */
+    public static final int MINIMUM_SIZE_CLASS_BYTES = 1 << 8;
+
+    /**
+     * The capacity of the largest size class. Buffers bigger than this are not pooled.
+     */
+    public static final int MAXIMUM_SIZE_CLASS_BYTES = 1 << 20;
+
+    /**
+     * The default upper bound for the total capacity of all buffers retained by a pool.
+     */
+    public static final long DEFAULT_MAXIMUM_RETAINED_BYTES = 4L << 20;
+
+    private static final int MINIMUM_SIZE_CLASS_SHIFT = Integer.numberOfTrailingZeros(MINIMUM_SIZE_CLASS_BYTES);
+    private static final int SIZE_CLASS_COUNT = Integer.numberOfTrailingZeros(MAXIMUM_SIZE_CLASS_BYTES) - MINIMUM_SIZE_CLASS_SHIFT + 1;
+
+    /**
+     * Whether this pool hands out direct buffers instead of heap buffers.
+     */
+    private final boolean direct;
+
+    /**
+     * The upper bound for {@link #retainedBytes}.
+     */
+    private final long maximumRetainedBytes;
+
+    /**
+     * The free buffers for each size class, indexed by {@link #sizeClassIndex(int)}.
+     */
+    private final List<ArrayDeque<ByteBuffer>> sizeClasses;
+
+    /**
+     * The total capacity of all buffers currently held within {@link #sizeClasses}.
+     */
+    private long retainedBytes;
+
+    private final AtomicLong hitCount;
+    private final AtomicLong missCount;
+
+    /**
+     * Initializes a new {@link BufferPool} which retains up to {@link #DEFAULT_MAXIMUM_RETAINED_BYTES}.
+     *
+     * @param direct Whether direct buffers should be handed out instead of heap buffers.
+     */
+    public BufferPool(final boolean direct) {
+        this(direct, DEFAULT_MAXIMUM_RETAINED_BYTES);
+    }
+
+    /**
+     * Initializes a new {@link BufferPool}.
+     *
+     * @param direct               Whether direct buffers should be handed out instead of heap buffers.
+     * @param maximumRetainedBytes The upper bound for the total capacity of all buffers retained by this pool.
+     */
+    public BufferPool(final boolean direct, final long maximumRetainedBytes) {
+        this.direct = direct;
+        this.maximumRetainedBytes = maximumRetainedBytes;
+        this.sizeClasses = new ArrayList<>(SIZE_CLASS_COUNT);
+        for (int i = 0; i < SIZE_CLASS_COUNT; i++) {
+            this.sizeClasses.add(new ArrayDeque<>());
+        }
+
+        this.retainedBytes = 0;
+        this.hitCount = new AtomicLong();
+        this.missCount = new AtomicLong();
+    }
+
+    /**
+     * Borrows a buffer which can hold at least the requested number of bytes.
+     * <p>
+     * The returned buffer's position is zero, its limit is the requested size, and its byte order is big-endian. Once the
+     * caller is finished with the buffer, it should be handed back through {@link #release(ByteBuffer)}.
+     *
+     * @param size The number of bytes that the buffer must be able to hold.
+     */
+    public ByteBuffer acquire(final int size) {
+        final int index = sizeClassIndex(size);
+
+        ByteBuffer buffer = null;
+        if (index < SIZE_CLASS_COUNT) {
+            synchronized (this) {
+                buffer = this.sizeClasses.get(index).pollFirst();
+                if (buffer != null) {
+                    this.retainedBytes -= buffer.capacity();
+                }
+            }
+        }
+
+        if (buffer != null) {
+            this.hitCount.incrementAndGet();
+        } else {
+            this.missCount.incrementAndGet();
+            buffer = this.allocate(index < SIZE_CLASS_COUNT ? sizeClassCapacity(index) : size);
+        }
+
+        buffer.clear();
+        buffer.limit(size);
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer previously borrowed through {@link #acquire(int)} to this pool.
+     * <p>
+     * The buffer must not be used by the caller after it has been released.
+     */
+    public void release(final ByteBuffer buffer) {
+        // Buffers that do not belong to a size class (or are of the wrong kind) are not retained.
+        final int capacity = buffer.capacity();
+        final int index = sizeClassIndex(capacity);
+        if (index >= SIZE_CLASS_COUNT || sizeClassCapacity(index) != capacity || buffer.isDirect() != this.direct) {
+            return;
+        }
+
+        synchronized (this) {
+            if (this.retainedBytes + capacity > this.maximumRetainedBytes) {
+                return;
+            }
+
+            this.sizeClasses.get(index).offerFirst(buffer);
+            this.retainedBytes += capacity;
+        }
+    }
+
+    /**
+     * Returns whether this pool hands out direct buffers instead of heap buffers.
+     */
+    public boolean isDirect() {
+        return this.direct;
+    }
+
+    /**
+     * The number of times that {@link #acquire(int)} was able to reuse a pooled buffer.
+     */
+    public long hitCount() {
+        return this.hitCount.get();
+    }
+
+    /**
+     * The number of times that {@link #acquire(int)} had to allocate a new buffer.
+     */
+    public long missCount() {
+        return this.missCount.get();
+    }
+
+    /**
+     * The total capacity of all buffers currently retained by this pool.
+     */
+    public synchronized long retainedBytes() {
+        return this.retainedBytes;
+    }
+
+    private ByteBuffer allocate(final int capacity) {
+        return this.direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Returns the index of the smallest size class which can hold the provided number of bytes.
+     */
+    private static int sizeClassIndex(final int size) {
+        if (size <= MINIMUM_SIZE_CLASS_BYTES) {
+            return 0;
+        }
+
+        // The number of bits required to represent (size - 1) is the exponent of the next power of two.
+        return (Integer.SIZE - Integer.numberOfLeadingZeros(size - 1)) - MINIMUM_SIZE_CLASS_SHIFT;
+    }
+
+    private static int sizeClassCapacity(final int index) {
+        return 1 << (index + MINIMUM_SIZE_CLASS_SHIFT);
+    }
+}
@@ -0,0 +1,277 @@
+package dev.caoimhe.jdiscordipc.packet.codec;
+
+import dev.caoimhe.jdiscordipc.packet.Packet;
+import dev.caoimhe.jdiscordipc.packet.PacketOpcode;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An incremental decoder which turns arbitrary chunks of bytes into packets.
+ * <p>
+ * Unlike {@link PacketCodec#read()}, this never blocks or reads from a data source itself. Instead, bytes are fed to it
+ * as they arrive (for example, from a non-blocking channel driven by a selector), in chunks of any size. Each call to
+ * {@link #feed(ByteBuffer, Consumer)} emits every packet that has been completed by that chunk, which may be none.
+ * <p>
+ * Payloads are decoded through {@link PacketCodec#decode(PacketOpcode, ByteBuffer)}. If a chunk contains a complete
+ * frame, its payload is decoded straight from the chunk. Otherwise, the payload is collected in a buffer borrowed from
+ * the codec's {@link BufferPool} until all of its bytes have arrived.
+ * <p>
+ * Events which the codec drops while decoding are not emitted, and are not counted as completed packets.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class FrameDecoder {
+    /**
+     * The codec used to decode payloads once all of their bytes have been received.
+     */
+    private final PacketCodec codec;
+
+    /**
+     * A buffer that the current packet's header is collected in.
+     */
+    private final ByteBuffer headerBuffer;
+
+    /**
+     * The buffer that the current packet's payload is collected in, only set while in the {@link State#PAYLOAD} state.
+     */
+    private @Nullable ByteBuffer payloadBuffer;
+
+    /**
+     * The opcode of the current packet, only set while in the {@link State#PAYLOAD} state.
+     */
+    private @Nullable PacketOpcode opcode;
+
+    private State state;
+
+    /**
+     * Initializes a new {@link FrameDecoder}.
+     *
+     * @param codec The codec to decode payloads with.
+     */
+    public FrameDecoder(final PacketCodec codec) {
+        this.codec = codec;
+
+        // Discord uses little endian for the integers stored within the packet's header.
+        this.headerBuffer = ByteBuffer.allocate(PacketCodec.HEADER_SIZE_BYTES);
+        this.headerBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        this.payloadBuffer = null;
+        this.opcode = null;
+        this.state = State.HEADER;
+    }
+
+    /**
+     * Feeds the remaining bytes of a chunk to this decoder, returning the packets that were completed by it.
+     * <p>
+     * If a payload fails to decode, any packets completed before it within the same call are not returned. Use
+     * {@link #feed(ByteBuffer, Consumer)} if those packets must not be lost.
+     *
+     * @see #feed(ByteBuffer, Consumer)
+     */
+    public List<Packet> feed(final ByteBuffer chunk) throws IOException {
+        final List<Packet> packets = new ArrayList<>();
+        this.feed(chunk, packets::add);
+        return packets;
+    }
+
+    /**
+     * Feeds the remaining bytes of a chunk to this decoder, passing every packet completed by it to the consumer.
+     * <p>
+     * All remaining bytes within the chunk are consumed, unless a payload fails to decode. In that case, the exception
+     * is thrown once the malformed packet's bytes have been consumed, and the chunk's position is left at the start of
+     * the next packet. The decoder can continue to be fed afterwards. An invalid header can't be skipped over in the
+     * same way, as the length of its packet is unknown, so the decoder must be {@link #reset()} along with the data
+     * source.
+     *
+     * @param chunk    The bytes that were received, between its position and limit.
+     * @param consumer The consumer to pass completed packets to.
+     * @return The number of packets that were passed to the consumer.
+     * @throws IOException If a header contains an invalid opcode or length, or a payload could not be decoded.
+     */
+    public int feed(final ByteBuffer chunk, final Consumer<Packet> consumer) throws IOException {
+        int count = 0;
+
+        while (chunk.hasRemaining()) {
+            switch (this.state) {
+                case HEADER:
+                    // If the whole frame is within this chunk, its payload can be decoded without copying it.
+                    if (this.headerBuffer.position() == 0) {
+                        final int emitted = this.tryDecodeInPlace(chunk, consumer);
+                        if (emitted != -1) {
+                            count += emitted;
+                            break;
+                        }
+                    }
+
+                    transfer(chunk, this.headerBuffer);
+                    if (!this.headerBuffer.hasRemaining()) {
+                        this.onHeaderComplete();
+                    }
+
+                    break;
+
+                case PAYLOAD:
+                    final ByteBuffer payloadBuffer = this.requirePayloadBuffer();
+                    transfer(chunk, payloadBuffer);
+                    if (!payloadBuffer.hasRemaining()) {
+                        count += emit(this.onPayloadComplete(), consumer);
+                    }
+
+                    break;
+            }
+        }
+
+        // A packet with an empty payload is complete as soon as its header is.
+        if (this.state == State.PAYLOAD && !this.requirePayloadBuffer().hasRemaining()) {
+            count += emit(this.onPayloadComplete(), consumer);
+        }
+
+        return count;
+    }
+
+    /**
+     * Discards any partially received packet, returning this decoder to its initial state.
+     */
+    public void reset() {
+        if (this.payloadBuffer != null) {
+            this.codec.bufferPool().release(this.payloadBuffer);
+        }
+
+        this.headerBuffer.clear();
+        this.payloadBuffer = null;
+        this.opcode = null;
+        this.state = State.HEADER;
+    }
+
+    /**
+     * Attempts to decode a complete frame from the start of the chunk, without copying its payload.
+     *
+     * @return The number of packets passed to the consumer, or -1 if the chunk did not contain a complete frame.
+     */
+    private int tryDecodeInPlace(final ByteBuffer chunk, final Consumer<Packet> consumer) throws IOException {
+        if (chunk.remaining() < PacketCodec.HEADER_SIZE_BYTES) {
+            return -1;
+        }
+
+        final ByteBuffer frame = chunk.slice();
+        frame.order(ByteOrder.LITTLE_ENDIAN);
+
+        final PacketOpcode opcode = opcodeFromValue(frame.getInt());
+        final int payloadLength = payloadLengthFromValue(frame.getInt());
+        if (frame.remaining() < payloadLength) {
+            return -1;
+        }
+
+        frame.limit(frame.position() + payloadLength);
+        frame.order(ByteOrder.BIG_ENDIAN);
+
+        // The frame is consumed before decoding, so that a malformed payload does not break the framing.
+        chunk.position(chunk.position() + PacketCodec.HEADER_SIZE_BYTES + payloadLength);
+        return emit(this.codec.decode(opcode, frame), consumer);
+    }
+
+    private void onHeaderComplete() throws IOException {
+        this.headerBuffer.flip();
+        final PacketOpcode opcode = opcodeFromValue(this.headerBuffer.getInt());
+        final int payloadLength = payloadLengthFromValue(this.headerBuffer.getInt());
+        this.headerBuffer.clear();
+
+        this.opcode = opcode;
+        this.payloadBuffer = this.codec.bufferPool().acquire(payloadLength);
+        this.state = State.PAYLOAD;
+    }
+
+    private @Nullable Packet onPayloadComplete() throws IOException {
+        final ByteBuffer payloadBuffer = this.requirePayloadBuffer();
+        final PacketOpcode opcode = this.opcode;
+        if (opcode == null) {
+            throw new IllegalStateException("FrameDecoder is in the PAYLOAD state without an opcode");
+        }
+
+        // The decoder goes back to the header state before decoding, so that a malformed payload does not break the
+        // framing.
+        this.payloadBuffer = null;
+        this.opcode = null;
+        this.state = State.HEADER;
+
+        try {
+            payloadBuffer.flip();
+            return this.codec.decode(opcode, payloadBuffer);
+        } finally {
+            this.codec.bufferPool().release(payloadBuffer);
+        }
+    }
+
+    private ByteBuffer requirePayloadBuffer() {
+        if (this.payloadBuffer == null) {
+            throw new IllegalStateException("FrameDecoder is in the PAYLOAD state without a payload buffer");
+        }
+
+        return this.payloadBuffer;
+    }
+
+    /**
+     * Passes a decoded packet to the consumer, unless it was dropped by the codec.
+     *
+     * @return The number of packets passed to the consumer.
+     */
+    private static int emit(final @Nullable Packet packet, final Consumer<Packet> consumer) {
+        if (packet == null) {
+            return 0;
+        }
+
+        consumer.accept(packet);
+        return 1;
+    }
+
+    private static PacketOpcode opcodeFromValue(final int opcodeValue) throws IOException {
+        final PacketOpcode opcode = PacketRegistry.opcode(opcodeValue);
+        if (opcode == null) {
+            throw new IOException("Received a packet with an unknown opcode (" + opcodeValue + ")");
+        }
+
+        return opcode;
+    }
+
+    private static int payloadLengthFromValue(final int payloadLength) throws IOException {
+        if (payloadLength < 0) {
+            throw new IOException("Received a packet with a negative payload length (" + payloadLength + ")");
+        }
+
+        return payloadLength;
+    }
+
+    /**
+     * Copies as many bytes as possible from the source buffer into the destination buffer.
+     */
+    private static void transfer(final ByteBuffer source, final ByteBuffer destination) {
+        final int length = Math.min(source.remaining(), destination.remaining());
+
+        final ByteBuffer slice = source.slice();
+        slice.limit(length);
+        destination.put(slice);
+
+        source.position(source.position() + length);
+    }
+
+    /**
+     * The states that a {@link FrameDecoder} moves between.
+     */
+    private enum State {
+        /**
+         * The decoder is waiting for the bytes of a packet's header.
+         */
+        HEADER,
+
+        /**
+         * The decoder has received a header, and is waiting for the bytes of the packet's payload.
+         */
+        PAYLOAD
+    }
+}
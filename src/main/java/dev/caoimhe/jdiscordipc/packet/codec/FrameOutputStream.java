@@ -0,0 +1,135 @@
+package dev.caoimhe.jdiscordipc.packet.codec;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A reusable, growable {@link OutputStream} that frames are encoded into before being written.
+ * <p>
+ * The backing {@link ByteBuffer} is borrowed from a {@link BufferPool} and is kept between frames, so encoding a frame
+ * does not allocate unless it is larger than any previous frame. When the stream runs out of space, a bigger buffer is
+ * borrowed and the old one is handed back.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class FrameOutputStream extends OutputStream {
+    /**
+     * The pool that the backing buffer is borrowed from.
+     */
+    private final BufferPool bufferPool;
+
+    /**
+     * The buffer that bytes are currently being written into. Its position is the number of bytes written since the
+     * last call to {@link #reset()}.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Initializes a new {@link FrameOutputStream}.
+     *
+     * @param bufferPool The pool to borrow the backing buffer from.
+     */
+    public FrameOutputStream(final BufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+        this.buffer = this.acquire(BufferPool.MINIMUM_SIZE_CLASS_BYTES);
+    }
+
+    /**
+     * Discards everything written to this stream, allowing the backing buffer to be reused for the next frame.
+     * <p>
+     * If an unusually large frame caused the backing buffer to grow beyond {@link BufferPool#MAXIMUM_SIZE_CLASS_BYTES},
+     * it is swapped for a smaller one, so that one large frame does not keep a large buffer alive forever.
+     */
+    public void reset() {
+        if (this.buffer.capacity() > BufferPool.MAXIMUM_SIZE_CLASS_BYTES) {
+            this.buffer = this.acquire(BufferPool.MINIMUM_SIZE_CLASS_BYTES);
+        }
+
+        this.buffer.clear();
+    }
+
+    /**
+     * Skips over the provided number of bytes, to be filled in later through {@link #buffer()}.
+     */
+    public void reserve(final int length) {
+        this.ensureRemaining(length);
+        this.buffer.position(this.buffer.position() + length);
+    }
+
+    /**
+     * Discards everything written after the provided number of bytes, e.g. a frame which could not be encoded.
+     *
+     * @param size The number of bytes to keep, this must not be more than {@link #size()}.
+     */
+    public void truncate(final int size) {
+        if (size < 0 || size > this.buffer.position()) {
+            throw new IllegalArgumentException("size must be between 0 and " + this.buffer.position());
+        }
+
+        this.buffer.position(size);
+    }
+
+    /**
+     * The number of bytes written since the last call to {@link #reset()}.
+     */
+    public int size() {
+        return this.buffer.position();
+    }
+
+    /**
+     * Returns the backing buffer. Its position is the number of bytes written since the last call to {@link #reset()}.
+     * <p>
+     * The returned buffer is only valid until the next write to this stream, as writing may replace it.
+     */
+    public ByteBuffer buffer() {
+        return this.buffer;
+    }
+
+    @Override
+    public void write(final int b) {
+        this.ensureRemaining(1);
+        this.buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) {
+        this.ensureRemaining(length);
+        this.buffer.put(bytes, offset, length);
+    }
+
+    /**
+     * Does nothing, the backing buffer is kept so that it can be reused.
+     * <p>
+     * Jackson closes the stream that it was writing to once it's done, which is why this is a no-op.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Grows the backing buffer if it does not have enough space remaining for the provided number of bytes.
+     */
+    private void ensureRemaining(final int length) {
+        if (this.buffer.remaining() >= length) {
+            return;
+        }
+
+        // The buffer is (at least) doubled to keep the number of copies logarithmic in the size of the frame.
+        final int required = this.buffer.position() + length;
+        final ByteBuffer replacement = this.acquire(Math.max(required, this.buffer.capacity() * 2));
+
+        this.buffer.flip();
+        replacement.put(this.buffer);
+
+        this.bufferPool.release(this.buffer);
+        this.buffer = replacement;
+    }
+
+    private ByteBuffer acquire(final int size) {
+        final ByteBuffer buffer = this.bufferPool.acquire(size);
+
+        // The pool may return a buffer with a smaller limit than its capacity, we can use all of it.
+        buffer.limit(buffer.capacity());
+        return buffer;
+    }
+}
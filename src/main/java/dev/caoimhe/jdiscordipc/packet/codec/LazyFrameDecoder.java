@@ -0,0 +1,235 @@
+package dev.caoimhe.jdiscordipc.packet.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import dev.caoimhe.jdiscordipc.event.model.Event;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.IncomingFramePacket;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.LazyFrameData;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.incoming.DispatchEventPacket;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decodes the payload of {@link IncomingFramePacket}s in two phases.
+ * <p>
+ * The first phase is a streaming pass over the payload which only extracts the {@code cmd}, {@code evt} and
+ * {@code nonce} fields. The {@code data} field is skipped over, and its raw bytes are kept as {@link LazyFrameData}.
+ * The second phase, binding those bytes to the data's model class, only happens when something calls
+ * {@link IncomingFramePacket#data()}. The type of packet, and how its data is bound, is looked up in a
+ * {@link PacketRegistry}.
+ * <p>
+ * Because the event's name is known before any of its data is bound, events which nobody has subscribed to (see
+ * {@link PacketCodec.EventFilter}) and events which have not been registered are dropped without being deserialized.
+ * Both are counted instead, see {@link #droppedEventCount()} and {@link #unknownEventCount()}.
+ *
+ * @see PacketCodec#decode(dev.caoimhe.jdiscordipc.packet.PacketOpcode, ByteBuffer)
+ */
+public class LazyFrameDecoder implements PacketRegistry.Decoder {
+    /**
+     * The registry that the types of commands and events are looked up in.
+     */
+    private final PacketRegistry packetRegistry;
+
+    /**
+     * Whether the data of a packet should be bound as soon as it is decoded, instead of when it is first requested.
+     */
+    private final boolean bindEagerly;
+
+    /**
+     * Decides which events are deserialized, any others are dropped.
+     */
+    private final PacketCodec.EventFilter eventFilter;
+
+    private final AtomicLong droppedEventCount;
+    private final AtomicLong unknownEventCount;
+
+    /**
+     * Initializes a new {@link LazyFrameDecoder} for the default packets (see {@link PacketRegistry#withDefaults()}),
+     * which defers deserialization of all data, and does not drop any known events.
+     */
+    public LazyFrameDecoder() {
+        this(PacketRegistry.withDefaults(), false, PacketCodec.EventFilter.ALL);
+    }
+
+    /**
+     * Initializes a new {@link LazyFrameDecoder}.
+     *
+     * @param packetRegistry The registry to look the types of commands and events up in.
+     * @param bindEagerly    Whether the data of a packet should be bound as soon as it is decoded. Events which are
+     *                       dropped by the filter are still never deserialized.
+     * @param eventFilter    Decides which events are deserialized, any others are dropped.
+     */
+    public LazyFrameDecoder(
+        final PacketRegistry packetRegistry,
+        final boolean bindEagerly,
+        final PacketCodec.EventFilter eventFilter
+    ) {
+        this.packetRegistry = packetRegistry;
+        this.bindEagerly = bindEagerly;
+        this.eventFilter = eventFilter;
+        this.droppedEventCount = new AtomicLong();
+        this.unknownEventCount = new AtomicLong();
+    }
+
+    /**
+     * Decodes the payload of a frame packet, deferring the deserialization of its data.
+     *
+     * @param payloadBuffer The buffer containing the packet's payload between its position and limit. This is not
+     *                      referred to once this method returns, the data's bytes are copied out of it.
+     * @return The decoded packet, or null if it was an event which was dropped.
+     * @throws IOException If the payload is malformed, or its command is not known.
+     */
+    @Override
+    public @Nullable IncomingFramePacket<?> decode(final ByteBuffer payloadBuffer) throws IOException {
+        final Fields fields = scan(payloadBuffer);
+
+        final String command = fields.command;
+        if (command == null) {
+            throw new IOException("Received a frame packet without a command");
+        }
+
+        if (command.equals("DISPATCH")) {
+            final String eventName = fields.eventName;
+            final PacketRegistry.EventType eventType = eventName != null ? this.packetRegistry.eventType(eventName) : null;
+            if (eventName == null || eventType == null) {
+                this.unknownEventCount.incrementAndGet();
+                return null;
+            }
+
+            if (!this.eventFilter.isSubscribed(eventType.type)) {
+                this.droppedEventCount.incrementAndGet();
+                return null;
+            }
+
+            final LazyFrameData<Event> data = this.bind(new LazyFrameData<>(fields.data, eventType.binder));
+            return new DispatchEventPacket(fields.uniqueId, eventName, data);
+        }
+
+        final PacketRegistry.CommandType<?> commandType = this.packetRegistry.commandType(command);
+        if (commandType == null) {
+            throw new IOException("Received a frame packet with an unknown command: " + command);
+        }
+
+        return this.createPacket(commandType, fields);
+    }
+
+    /**
+     * The number of events which were dropped because nothing had subscribed to them.
+     */
+    public long droppedEventCount() {
+        return this.droppedEventCount.get();
+    }
+
+    /**
+     * The number of events which were dropped because their name was not known.
+     */
+    public long unknownEventCount() {
+        return this.unknownEventCount.get();
+    }
+
+    private <D> IncomingFramePacket<?> createPacket(final PacketRegistry.CommandType<D> commandType, final Fields fields) throws IOException {
+        final LazyFrameData<D> data = this.bind(new LazyFrameData<>(fields.data, commandType.binder));
+        return commandType.factory.create(fields.uniqueId, data);
+    }
+
+    /**
+     * Binds the provided data straight away if this decoder binds eagerly, so that malformed data is reported while
+     * decoding instead of when it is first requested.
+     */
+    private <D> LazyFrameData<D> bind(final LazyFrameData<D> data) throws IOException {
+        if (this.bindEagerly) {
+            try {
+                data.get();
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        return data;
+    }
+
+    /**
+     * Performs the streaming first phase over a frame packet's payload.
+     * <p>
+     * Only the top-level fields that are needed to route the packet are read, everything else is skipped without being
+     * bound to any objects.
+     */
+    static Fields scan(final ByteBuffer payloadBuffer) throws IOException {
+        // The parser needs to be able to tell us where the data starts and ends within an array.
+        final byte[] bytes;
+        final int offset;
+        final int length = payloadBuffer.remaining();
+        if (payloadBuffer.hasArray()) {
+            bytes = payloadBuffer.array();
+            offset = payloadBuffer.arrayOffset() + payloadBuffer.position();
+        } else {
+            bytes = new byte[length];
+            payloadBuffer.duplicate().get(bytes);
+            offset = 0;
+        }
+
+        final Fields fields = new Fields();
+        try (final JsonParser parser = PacketCodec.JSON_MAPPER.createParser(bytes, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a frame packet's payload to be a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.currentName();
+                final JsonToken valueToken = parser.nextToken();
+
+                switch (fieldName) {
+                    case "cmd":
+                        fields.command = parser.getValueAsString();
+                        break;
+
+                    case "evt":
+                        fields.eventName = parser.getValueAsString();
+                        break;
+
+                    case "nonce":
+                        fields.uniqueId = parser.getValueAsString();
+                        break;
+
+                    case "data":
+                        if (valueToken == JsonToken.VALUE_NULL) {
+                            break;
+                        }
+
+                        // The parser's byte offsets are relative to the start of its input.
+                        final int dataStart = offset + (int) parser.currentTokenLocation().getByteOffset();
+                        if (valueToken.isStructStart()) {
+                            parser.skipChildren();
+                        } else {
+                            parser.finishToken();
+                        }
+
+                        final int dataEnd = offset + (int) parser.currentLocation().getByteOffset();
+                        fields.data = Arrays.copyOfRange(bytes, dataStart, dataEnd);
+                        break;
+
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+        }
+
+        return fields;
+    }
+
+    /**
+     * The fields extracted from a frame packet's payload by {@link #scan(ByteBuffer)}.
+     */
+    static class Fields {
+        @Nullable String command;
+        @Nullable String eventName;
+        @Nullable String uniqueId;
+        byte @Nullable [] data;
+    }
+}
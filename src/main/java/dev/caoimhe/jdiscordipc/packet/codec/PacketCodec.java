@@ -4,29 +4,76 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import dev.caoimhe.jdiscordipc.event.model.Event;
+import dev.caoimhe.jdiscordipc.internal.util.CollectionsUtil;
 import dev.caoimhe.jdiscordipc.packet.Packet;
 import dev.caoimhe.jdiscordipc.packet.PacketOpcode;
-import dev.caoimhe.jdiscordipc.packet.impl.ClosePacket;
+import dev.caoimhe.jdiscordipc.packet.PreEncodedPacket;
+import dev.caoimhe.jdiscordipc.packet.impl.HandshakePacket;
 import dev.caoimhe.jdiscordipc.packet.impl.PingPacket;
 import dev.caoimhe.jdiscordipc.packet.impl.PongPacket;
-import dev.caoimhe.jdiscordipc.packet.impl.frame.IncomingFramePacket;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.outgoing.SetActivityRequestPacket;
 import dev.caoimhe.jdiscordipc.socket.SystemSocket;
 import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Responsible for encoding and decoding bytes to and from packets.
  */
 public class PacketCodec {
     // Two 32-bit integers, one for the opcode and one for the payload size.
-    private static final int HEADER_SIZE_BYTES = 8;
+    static final int HEADER_SIZE_BYTES = 8;
+
+    /**
+     * The {@link JsonMapper} to use when (de)serializing JSON values.
+     * <p>
+     * Building a {@link JsonMapper} is expensive, and it is thread-safe once it has been configured, so it is shared
+     * between all {@link PacketCodec} instances instead of being built for every connection.
+     */
+    static final JsonMapper JSON_MAPPER = JsonMapper.builder()
+        .addModule(new ParameterNamesModule())
+        .enable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+        .disable(
+            DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
+            DeserializationFeature.FAIL_ON_NULL_CREATOR_PROPERTIES,
+            DeserializationFeature.FAIL_ON_MISSING_CREATOR_PROPERTIES
+        )
+        .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+        .defaultPropertyInclusion(JsonInclude.Value.construct(JsonInclude.Include.NON_NULL, JsonInclude.Include.NON_NULL))
+        .visibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+        .build();
+
+    /**
+     * The {@link ObjectWriter}s used to serialize each type of outgoing packet, and any other values passed to
+     * {@link #serialize(Object)}.
+     * <p>
+     * Writers for the packets that we know will be sent are built ahead of time, any other types of packets have their
+     * writer built (and cached) the first time that they are written.
+     */
+    private static final ConcurrentMap<Class<?>, ObjectWriter> PACKET_WRITERS = new ConcurrentHashMap<>();
+
+    static {
+        for (final Class<?> packetClass : CollectionsUtil.setOf(
+            HandshakePacket.class,
+            PingPacket.class,
+            PongPacket.class,
+            SetActivityRequestPacket.class
+        )) {
+            PACKET_WRITERS.put(packetClass, JSON_MAPPER.writerFor(packetClass));
+        }
+    }
 
     /**
      * A temporary buffer used to read a packet's header.
@@ -34,37 +81,106 @@ public class PacketCodec {
     private final ByteBuffer headerBuffer;
 
     /**
-     * The {@link JsonMapper} to use when (de)serializing JSON values.
+     * The {@link BufferPool} that payload buffers and the {@link #frameOutputStream}'s buffer are borrowed from.
+     */
+    private final BufferPool bufferPool;
+
+    /**
+     * A buffer used to write a packet's header when its payload has already been encoded.
+     *
+     * @see #write(PacketOpcode, ByteBuffer...)
      */
-    private final JsonMapper jsonMapper;
+    private final ByteBuffer writeHeaderBuffer;
+
+    /**
+     * The stream that outgoing frames are encoded into. This is also used as the lock for all write operations.
+     */
+    private final FrameOutputStream frameOutputStream;
+
+    /**
+     * Describes how each type of incoming packet is decoded.
+     */
+    private final PacketRegistry packetRegistry;
+
+    /**
+     * The decoder to use for frame packets, unless a custom decoder has been registered for them.
+     *
+     * @see LazyFrameDecoder
+     */
+    private final LazyFrameDecoder frameDecoder;
 
     private final ReadFunction readFunction;
     private final WriteFunction writeFunction;
 
     /**
-     * Initializes a new {@link PacketCodec} instance.
+     * Initializes a new {@link PacketCodec} instance which borrows heap buffers from its own {@link BufferPool}.
      *
      * @param readFunction  The function to call when reading bytes.
      * @param writeFunction The function to call when writing bytes.
      */
     public PacketCodec(final ReadFunction readFunction, final WriteFunction writeFunction) {
+        this(readFunction, writeFunction, new BufferPool(false));
+    }
+
+    /**
+     * Initializes a new {@link PacketCodec} instance.
+     *
+     * @param readFunction  The function to call when reading bytes.
+     * @param writeFunction The function to call when writing bytes.
+     * @param bufferPool    The pool to borrow payload and frame buffers from.
+     */
+    public PacketCodec(final ReadFunction readFunction, final WriteFunction writeFunction, final BufferPool bufferPool) {
+        this(readFunction, writeFunction, bufferPool, false);
+    }
+
+    /**
+     * Initializes a new {@link PacketCodec} instance.
+     *
+     * @param readFunction      The function to call when reading bytes.
+     * @param writeFunction     The function to call when writing bytes.
+     * @param bufferPool        The pool to borrow payload and frame buffers from.
+     * @param lazyFrameDecoding Whether the data of incoming frame packets should only be deserialized when it is first
+     *                          requested, see {@link LazyFrameDecoder}.
+     */
+    public PacketCodec(
+        final ReadFunction readFunction,
+        final WriteFunction writeFunction,
+        final BufferPool bufferPool,
+        final boolean lazyFrameDecoding
+    ) {
+        this(readFunction, writeFunction, bufferPool, PacketRegistry.withDefaults(), lazyFrameDecoding, EventFilter.ALL);
+    }
+
+    /**
+     * Initializes a new {@link PacketCodec} instance.
+     *
+     * @param readFunction      The function to call when reading bytes.
+     * @param writeFunction     The function to call when writing bytes.
+     * @param bufferPool        The pool to borrow payload and frame buffers from.
+     * @param packetRegistry    Describes how each type of incoming packet is decoded.
+     * @param lazyFrameDecoding Whether the data of incoming frame packets should only be deserialized when it is first
+     *                          requested, see {@link LazyFrameDecoder}.
+     * @param eventFilter       Decides which incoming events are deserialized, any others are dropped.
+     */
+    public PacketCodec(
+        final ReadFunction readFunction,
+        final WriteFunction writeFunction,
+        final BufferPool bufferPool,
+        final PacketRegistry packetRegistry,
+        final boolean lazyFrameDecoding,
+        final EventFilter eventFilter
+    ) {
         // Discord uses little endian for the integers stored within the packet's header.
         this.headerBuffer = ByteBuffer.allocate(HEADER_SIZE_BYTES);
         this.headerBuffer.order(ByteOrder.LITTLE_ENDIAN);
 
-        this.jsonMapper = JsonMapper.builder()
-            .addModule(new ParameterNamesModule())
-            .enable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
-            .disable(
-                DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
-                DeserializationFeature.FAIL_ON_NULL_CREATOR_PROPERTIES,
-                DeserializationFeature.FAIL_ON_MISSING_CREATOR_PROPERTIES
-            )
-            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
-            .defaultPropertyInclusion(JsonInclude.Value.construct(JsonInclude.Include.NON_NULL, JsonInclude.Include.NON_NULL))
-            .visibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
-            .build();
+        this.writeHeaderBuffer = ByteBuffer.allocate(HEADER_SIZE_BYTES);
+        this.writeHeaderBuffer.order(ByteOrder.LITTLE_ENDIAN);
 
+        this.bufferPool = bufferPool;
+        this.frameOutputStream = new FrameOutputStream(bufferPool);
+        this.packetRegistry = packetRegistry;
+        this.frameDecoder = new LazyFrameDecoder(packetRegistry, !lazyFrameDecoding, eventFilter);
         this.readFunction = readFunction;
         this.writeFunction = writeFunction;
     }
@@ -73,7 +189,98 @@ public class PacketCodec {
      * Initializes a new {@link PacketCodec} instance using the provided {@link SystemSocket} to read and write bytes.
      */
     public static PacketCodec from(final SystemSocket systemSocket) {
-        return new PacketCodec(systemSocket::readFully, systemSocket::write);
+        return PacketCodec.from(systemSocket, false);
+    }
+
+    /**
+     * Initializes a new {@link PacketCodec} instance using the provided {@link SystemSocket} to read and write bytes.
+     * <p>
+     * Bytes are read from the socket through a {@link ReadAheadBuffer} if it supports partial reads (see
+     * {@link SystemSocket#supportsPartialReads()}), so that a burst of incoming packets can be read with a single read
+     * from the socket.
+     *
+     * @param directBuffers Whether direct buffers should be used for payloads. This is only respected if the
+     *                      {@link SystemSocket} supports them, see {@link SystemSocket#supportsDirectBuffers()}.
+     */
+    public static PacketCodec from(final SystemSocket systemSocket, final boolean directBuffers) {
+        return PacketCodec.from(systemSocket, directBuffers, false);
+    }
+
+    /**
+     * Initializes a new {@link PacketCodec} instance using the provided {@link SystemSocket} to read and write bytes.
+     * <p>
+     * Bytes are read from the socket through a {@link ReadAheadBuffer} if it supports partial reads (see
+     * {@link SystemSocket#supportsPartialReads()}), so that a burst of incoming packets can be read with a single read
+     * from the socket.
+     *
+     * @param directBuffers     Whether direct buffers should be used for payloads. This is only respected if the
+     *                          {@link SystemSocket} supports them, see {@link SystemSocket#supportsDirectBuffers()}.
+     * @param lazyFrameDecoding Whether the data of incoming frame packets should only be deserialized when it is first
+     *                          requested, see {@link LazyFrameDecoder}.
+     */
+    public static PacketCodec from(final SystemSocket systemSocket, final boolean directBuffers, final boolean lazyFrameDecoding) {
+        return PacketCodec.from(systemSocket, directBuffers, PacketRegistry.withDefaults(), lazyFrameDecoding, EventFilter.ALL);
+    }
+
+    /**
+     * Initializes a new {@link PacketCodec} instance using the provided {@link SystemSocket} to read and write bytes.
+     * <p>
+     * Bytes are read from the socket through a {@link ReadAheadBuffer} if it supports partial reads (see
+     * {@link SystemSocket#supportsPartialReads()}), so that a burst of incoming packets can be read with a single read
+     * from the socket.
+     *
+     * @param directBuffers     Whether direct buffers should be used for payloads. This is only respected if the
+     *                          {@link SystemSocket} supports them, see {@link SystemSocket#supportsDirectBuffers()}.
+     * @param packetRegistry    Describes how each type of incoming packet is decoded.
+     * @param lazyFrameDecoding Whether the data of incoming frame packets should only be deserialized when it is first
+     *                          requested, see {@link LazyFrameDecoder}.
+     * @param eventFilter       Decides which incoming events are deserialized, any others are dropped.
+     */
+    public static PacketCodec from(
+        final SystemSocket systemSocket,
+        final boolean directBuffers,
+        final PacketRegistry packetRegistry,
+        final boolean lazyFrameDecoding,
+        final EventFilter eventFilter
+    ) {
+        final BufferPool bufferPool = new BufferPool(directBuffers && systemSocket.supportsDirectBuffers());
+        final ReadFunction readFunction = systemSocket.supportsPartialReads()
+            ? new ReadAheadBuffer(systemSocket::read, bufferPool.isDirect())
+            : systemSocket::readFully;
+        return new PacketCodec(readFunction, systemSocket::write, bufferPool, packetRegistry, lazyFrameDecoding, eventFilter);
+    }
+
+    /**
+     * Returns the {@link BufferPool} that this codec borrows its buffers from.
+     */
+    public BufferPool bufferPool() {
+        return this.bufferPool;
+    }
+
+    /**
+     * The number of incoming events which were dropped without being deserialized, because nothing had subscribed to
+     * them.
+     *
+     * @see EventFilter
+     */
+    public long droppedEventCount() {
+        return this.frameDecoder.droppedEventCount();
+    }
+
+    /**
+     * The number of incoming events which were dropped because their type is not known to JDiscordIPC.
+     */
+    public long unknownEventCount() {
+        return this.frameDecoder.unknownEventCount();
+    }
+
+    /**
+     * Discards any partially read packet, so that the next call to {@link #read()} starts at a packet's header. This must
+     * be called before reading from a new connection, and not while a packet is being read.
+     */
+    public void reset() {
+        this.headerBuffer.clear();
+        this.readFunction.reset();
     }
 
     /**
@@ -84,75 +291,271 @@ public class PacketCodec {
      *
      * @return The {@link Packet} if it could be read, or null if the read function was unable to complete reading the
      * incoming data. This usually occurs when the socket is closed by the other party.
+     * <p>
+     * Events which are dropped while decoding (see {@link #decode(PacketOpcode, ByteBuffer)}) are skipped over, this
+     * keeps reading until a packet which was not dropped is read.
      */
     public @Nullable Packet read() throws IOException {
-        // We can attempt to read the header into the header buffer. If that does not get read fully, there's nothing we
-        // can do yet.
-        if (!this.readFunction.readFully(this.headerBuffer)) {
-            return null;
-        }
+        while (true) {
+            // We can attempt to read the header into the header buffer. If that does not get read fully, there's
+            // nothing we can do yet.
+            if (!this.readFunction.readFully(this.headerBuffer)) {
+                return null;
+            }
 
-        // The header contains an opcode and the length of the JSON payload within the packet.
-        final int opcodeValue = this.headerBuffer.getInt();
-        final int payloadLength = this.headerBuffer.getInt();
+            // The header contains an opcode and the length of the JSON payload within the packet.
+            final int opcodeValue = this.headerBuffer.getInt();
+            final int payloadLength = this.headerBuffer.getInt();
 
-        // We're finished with the header buffer, we can reset it to its old position.
-        this.headerBuffer.clear();
+            // We're finished with the header buffer, we can reset it to its old position.
+            this.headerBuffer.clear();
 
-        if (opcodeValue < 1 || opcodeValue > PacketOpcode.values().length) {
-            return null;
-        }
+            final PacketOpcode opcode = PacketRegistry.opcode(opcodeValue);
+            if (opcode == null) {
+                return null;
+            }
+
+            if (payloadLength < 0) {
+                throw new IOException("Received a packet with a negative payload length (" + payloadLength + ")");
+            }
 
-        final PacketOpcode opcode = PacketOpcode.values()[opcodeValue];
+            // We can then read the JSON within the packet, now that we know the length.
+            final ByteBuffer payloadBuffer = this.bufferPool.acquire(payloadLength);
+            final Packet packet;
+            try {
+                if (!this.readFunction.readFully(payloadBuffer)) {
+                    return null;
+                }
 
-        // We can then read the JSON within the packet, now that we know the length.
-        final ByteBuffer payloadBuffer = ByteBuffer.allocate(payloadLength);
-        if (!this.readFunction.readFully(payloadBuffer)) {
-            return null;
+                packet = this.decode(opcode, payloadBuffer);
+            } finally {
+                // The packet has been fully deserialized, nothing refers to the payload buffer anymore.
+                this.bufferPool.release(payloadBuffer);
+            }
+
+            if (packet != null) {
+                return packet;
+            }
         }
+    }
 
-        final String payload = StandardCharsets.UTF_8.decode(payloadBuffer).toString();
-        System.out.println("Payload: " + payload);
+    /**
+     * Decodes the JSON payload of a packet which has already been read.
+     * <p>
+     * This does not perform any I/O, so it can be used by anything that has the bytes for a payload, regardless of how
+     * they were received (see {@link FrameDecoder}).
+     *
+     * @param opcode        The opcode from the packet's header.
+     * @param payloadBuffer The buffer containing the packet's payload between its position and limit.
+     * @return The decoded packet, or null if it was dropped (for example, an event which nothing subscribed to, see
+     * {@link EventFilter}).
+     * @see PacketRegistry
+     */
+    public @Nullable Packet decode(final PacketOpcode opcode, final ByteBuffer payloadBuffer) throws IOException {
+        PacketRegistry.Decoder decoder = this.packetRegistry.decoder(opcode);
+        if (decoder == null && opcode == PacketOpcode.FRAME) {
+            decoder = this.frameDecoder;
+        }
 
-        switch (opcode) {
-            case FRAME:
-                return this.jsonMapper.readValue(payload, IncomingFramePacket.class);
+        if (decoder == null) {
+            throw new IllegalStateException("Unsupported packet opcode " + opcode);
+        }
 
-            case CLOSE:
-                return this.jsonMapper.readValue(payload, ClosePacket.class);
+        return decoder.decode(payloadBuffer);
+    }
 
-            case PING:
-                return this.jsonMapper.readValue(payload, PingPacket.class);
+    /**
+     * Deserializes the remaining bytes within the provided {@link ByteBuffer} as JSON using the provided
+     * {@link ObjectReader}.
+     * <p>
+     * If the buffer is array-backed, its array is handed to the {@link ObjectReader} directly. Otherwise, the buffer is
+     * read through an {@link java.io.InputStream} wrapping it. Either way, the payload is parsed straight from the bytes
+     * that were read, there's no need to decode it to a String or copy it first.
+     *
+     * @param reader        The reader for the type to deserialize the payload as.
+     * @param payloadBuffer The buffer containing the JSON payload.
+     */
+    static <T> T readPayload(final ObjectReader reader, final ByteBuffer payloadBuffer) throws IOException {
+        if (payloadBuffer.hasArray()) {
+            final int offset = payloadBuffer.arrayOffset() + payloadBuffer.position();
+            return reader.readValue(payloadBuffer.array(), offset, payloadBuffer.remaining());
+        }
 
-            case PONG:
-                return this.jsonMapper.readValue(payload, PongPacket.class);
+        return reader.readValue(new ByteBufferBackedInputStream(payloadBuffer));
+    }
 
-            default:
-                throw new IllegalStateException("Unsupported packet opcode " + opcode);
+    /**
+     * Serializes a value to JSON in the same way as the payload of an outgoing packet.
+     *
+     * @param value The value to serialize.
+     * @return The UTF-8 encoded JSON.
+     */
+    public static byte[] serialize(final @Nullable Object value) throws IOException {
+        if (value == null) {
+            return JSON_MAPPER.writeValueAsBytes(null);
         }
+
+        return PACKET_WRITERS.computeIfAbsent(value.getClass(), JSON_MAPPER::writerFor).writeValueAsBytes(value);
     }
 
     /**
      * Attempts to write a packet using the write function provided during initialization.
+     * <p>
+     * The packet is serialized straight into a reusable {@link FrameOutputStream} after some space reserved for the
+     * header. Once the length of the payload is known, the header is filled in and the whole frame is written at once.
      */
     public void write(final Packet packet) throws IOException {
-        // In order to allocate a buffer, we need to know how much data to allocate.
-        final byte[] payloadBytes = this.jsonMapper.writeValueAsBytes(packet);
+        synchronized (this.frameOutputStream) {
+            this.frameOutputStream.reset();
+            this.encode(packet);
+            this.flushFrameOutputStream();
+        }
+    }
 
-        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE_BYTES + payloadBytes.length);
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Attempts to write multiple packets using the write function provided during initialization.
+     * <p>
+     * All packets are encoded back-to-back into the same buffer, and are written with a single call to the write
+     * function. A packet which fails to encode is left out of the write and reported to the
+     * {@link EncodeFailureListener}, the other packets are still written.
+     *
+     * @param packets               The packets to write, in order.
+     * @param encodeFailureListener Called for each packet which could not be encoded.
+     * @return The number of packets which were written.
+     * @throws IOException If the packets could not be written, in which case none of them were.
+     * @see #write(Packet)
+     */
+    public int write(final List<? extends Packet> packets, final EncodeFailureListener encodeFailureListener) throws IOException {
+        synchronized (this.frameOutputStream) {
+            this.frameOutputStream.reset();
 
-        // The header is written in little-endian.
-        buffer.putInt(packet.opcode().ordinal());
-        buffer.putInt(payloadBytes.length);
+            int encodedCount = 0;
+            for (int i = 0; i < packets.size(); i++) {
+                final int frameStart = this.frameOutputStream.size();
 
+                try {
+                    this.encode(packets.get(i));
+                    encodedCount++;
+                } catch (final Exception e) {
+                    // Whatever was written of the frame is thrown away, the frames before it are kept.
+                    this.frameOutputStream.truncate(frameStart);
+                    encodeFailureListener.onEncodeFailure(i, e);
+                }
+            }
+
+            if (encodedCount > 0) {
+                this.flushFrameOutputStream();
+            }
+
+            return encodedCount;
+        }
+    }
+
+    /**
+     * Attempts to write a packet whose payload has already been encoded, using the write function provided during
+     * initialization.
+     * <p>
+     * The header is written from a cached buffer, and is handed to the write function alongside the payload buffers in
+     * a single gathering write. The payload buffers are not copied.
+     *
+     * @param opcode         The opcode of the packet.
+     * @param payloadBuffers The buffers containing the JSON payload of the packet, their remaining bytes are written in
+     *                       order.
+     */
+    public void write(final PacketOpcode opcode, final ByteBuffer... payloadBuffers) throws IOException {
+        long payloadLength = 0;
+        for (final ByteBuffer payloadBuffer : payloadBuffers) {
+            payloadLength += payloadBuffer.remaining();
+        }
+
+        if (payloadLength > Integer.MAX_VALUE) {
+            throw new IOException("Packet payload is too large (" + payloadLength + " bytes)");
+        }
+
+        synchronized (this.frameOutputStream) {
+            this.writeHeaderBuffer.clear();
+            this.writeHeaderBuffer.putInt(opcode.ordinal());
+            this.writeHeaderBuffer.putInt((int) payloadLength);
+            this.writeHeaderBuffer.flip();
+
+            final ByteBuffer[] buffers = new ByteBuffer[payloadBuffers.length + 1];
+            buffers[0] = this.writeHeaderBuffer;
+            System.arraycopy(payloadBuffers, 0, buffers, 1, payloadBuffers.length);
+
+            this.writeFunction.write(buffers);
+        }
+    }
+
+    /**
+     * Appends a frame for the provided packet to the {@link #frameOutputStream}.
+     * <p>
+     * A {@link PreEncodedPacket} writes its own payload, any other packet is serialized with Jackson.
+     * <p>
+     * The caller must hold the lock on the {@link #frameOutputStream}.
+     */
+    private void encode(final Packet packet) throws IOException {
+        final int frameStart = this.frameOutputStream.size();
+        this.frameOutputStream.reserve(HEADER_SIZE_BYTES);
+
+        if (packet instanceof PreEncodedPacket) {
+            ((PreEncodedPacket) packet).writePayload(this.frameOutputStream);
+        } else {
+            final ObjectWriter writer = PACKET_WRITERS.computeIfAbsent(packet.getClass(), JSON_MAPPER::writerFor);
+            writer.writeValue(this.frameOutputStream, packet);
+        }
+
+        // The header is written in little-endian, now that we know the length of the payload.
+        final ByteBuffer buffer = this.frameOutputStream.buffer();
+        final int payloadLength = buffer.position() - frameStart - HEADER_SIZE_BYTES;
+
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(frameStart, packet.opcode().ordinal());
+        buffer.putInt(frameStart + 4, payloadLength);
         buffer.order(ByteOrder.BIG_ENDIAN);
-        buffer.put(payloadBytes);
+    }
 
-        // Now that we have the buffer, we can write that to the socket.
+    /**
+     * Writes everything within the {@link #frameOutputStream} using the write function.
+     * <p>
+     * The caller must hold the lock on the {@link #frameOutputStream}.
+     */
+    private void flushFrameOutputStream() throws IOException {
+        final ByteBuffer buffer = this.frameOutputStream.buffer();
+        buffer.flip();
         this.writeFunction.write(buffer);
     }
 
+    /**
+     * Called by {@link #write(List, EncodeFailureListener)} for each packet which could not be encoded.
+     */
+    @FunctionalInterface
+    public interface EncodeFailureListener {
+        /**
+         * @param index     The index of the packet within the list being written.
+         * @param exception The exception thrown while encoding the packet.
+         */
+        void onEncodeFailure(final int index, final Exception exception);
+    }
+
+    /**
+     * Decides which types of incoming events should be deserialized.
+     * <p>
+     * This is consulted with the event's type before any of its data is bound, events which it rejects are dropped.
+     */
+    public interface EventFilter {
+        /**
+         * An {@link EventFilter} which accepts every type of event.
+         */
+        EventFilter ALL = eventType -> true;
+
+        /**
+         * Returns whether anything is interested in events of the provided type.
+         *
+         * @param eventType The type of the event.
+         */
+        boolean isSubscribed(final Class<? extends Event> eventType);
+    }
+
     /**
      * The type of the function called when bytes should be read to decode a packet.
      */
@@ -160,13 +563,21 @@ public class PacketCodec {
         /**
          * Attempts to read bytes from the underlying data source into the provided {@link ByteBuffer}.
          * <p></p>
-         * If there is not enough bytes available to read into the buffer, this will block until the bytes become
-         * available. The {@link ByteBuffer} must be array-backed for this operation to succeed.
+         * Bytes are read into the buffer between its position and its limit. If there is not enough bytes available to
+         * read into the buffer, this will block until the bytes become available. Once the bytes have been read, the
+         * buffer's position is restored to where it was before reading.
          *
          * @param byteBuffer The byte buffer to read into.
          * @return Whether the operation was successful, if `false`, it's likely that the socket was closed.
          */
         boolean readFully(final ByteBuffer byteBuffer) throws IOException;
+
+        /**
+         * Discards anything that was read ahead of the last call to {@link #readFully(ByteBuffer)}, as the underlying
+         * data source has been replaced. The default implementation does nothing, as it does not read ahead.
+         */
+        default void reset() {
+        }
     }
 
     /**
@@ -174,11 +585,12 @@ public class PacketCodec {
      */
     public interface WriteFunction {
         /**
-         * Attempts to write bytes to the underlying data source from the provided {@link ByteBuffer}.
+         * Attempts to write the remaining bytes (between the position and the limit) of the provided
+         * {@link ByteBuffer}s to the underlying data source, in order.
          *
-         * @param byteBuffer The buffer to write the bytes from.
+         * @param byteBuffers The buffers to write the bytes from.
          * @throws IOException If an I/O error occurs.
          */
-        void write(final ByteBuffer byteBuffer) throws IOException;
+        void write(final ByteBuffer... byteBuffers) throws IOException;
     }
 }
@@ -0,0 +1,261 @@
+package dev.caoimhe.jdiscordipc.packet.codec;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.caoimhe.jdiscordipc.activity.model.Activity;
+import dev.caoimhe.jdiscordipc.event.model.Event;
+import dev.caoimhe.jdiscordipc.event.model.ReadyEvent;
+import dev.caoimhe.jdiscordipc.event.model.VoiceChannelSelectEvent;
+import dev.caoimhe.jdiscordipc.packet.Packet;
+import dev.caoimhe.jdiscordipc.packet.PacketOpcode;
+import dev.caoimhe.jdiscordipc.packet.impl.ClosePacket;
+import dev.caoimhe.jdiscordipc.packet.impl.PingPacket;
+import dev.caoimhe.jdiscordipc.packet.impl.PongPacket;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.IncomingFramePacket;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.LazyFrameData;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.incoming.SetActivityResponsePacket;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Describes how each type of incoming packet is decoded.
+ * <p>
+ * There are three levels to this:
+ * <ul>
+ *     <li>Each opcode can have a {@link Decoder} for its payload, stored in an array indexed by the opcode's value.</li>
+ *     <li>Frame packets are decoded by the codec's {@link LazyFrameDecoder}, which picks the type of packet from its
+ *     {@code cmd} field, see {@link #registerCommand(String, Class, FramePacketFactory)}.</li>
+ *     <li>Frame packets with the {@code DISPATCH} command pick the type of their data from their {@code evt} field, see
+ *     {@link #registerEvent(String, Class)}.</li>
+ * </ul>
+ * A registry should be fully configured before it is handed to a {@link PacketCodec}, it is not safe to register
+ * anything while packets are being decoded.
+ *
+ * @see #withDefaults()
+ */
+public class PacketRegistry {
+    /**
+     * All opcodes, indexed by their value. {@link PacketOpcode#values()} returns a new array every time it is called, so
+     * this is used instead when looking up an opcode.
+     */
+    private static final PacketOpcode[] OPCODES = PacketOpcode.values();
+
+    /**
+     * The decoder for the payload of each opcode, indexed by {@link PacketOpcode#ordinal()}.
+     * <p>
+     * If the entry for {@link PacketOpcode#FRAME} is null, the codec's {@link LazyFrameDecoder} is used instead.
+     */
+    private final @Nullable Decoder[] decoders;
+
+    /**
+     * The types of frame packets which can be received, keyed by their command.
+     */
+    private final Map<String, CommandType<?>> commandTypes;
+
+    /**
+     * The types of events which can be dispatched, keyed by their name.
+     */
+    private final Map<String, EventType> eventTypes;
+
+    /**
+     * Initializes a new, empty {@link PacketRegistry}.
+     * <p>
+     * Nothing can be decoded with an empty registry other than frame packets with the {@code DISPATCH} command, whose
+     * events will all be unknown. Use {@link #withDefaults()} to get a registry for the packets that JDiscordIPC knows
+     * about.
+     */
+    public PacketRegistry() {
+        this.decoders = new Decoder[OPCODES.length];
+        this.commandTypes = new HashMap<>();
+        this.eventTypes = new HashMap<>();
+    }
+
+    /**
+     * Returns a new {@link PacketRegistry} containing every packet, command and event that JDiscordIPC knows about.
+     * <p>
+     * More can be registered on top of these, and any of them can be replaced.
+     */
+    public static PacketRegistry withDefaults() {
+        return new PacketRegistry()
+            .registerDecoder(PacketOpcode.CLOSE, ClosePacket.class)
+            .registerDecoder(PacketOpcode.PING, PingPacket.class)
+            .registerDecoder(PacketOpcode.PONG, PongPacket.class)
+            .registerCommand("SET_ACTIVITY", Activity.class, SetActivityResponsePacket::new)
+            .registerEvent("READY", ReadyEvent.class)
+            .registerEvent("VOICE_CHANNEL_SELECT", VoiceChannelSelectEvent.class);
+    }
+
+    /**
+     * Returns the opcode with the provided value, or null if there is no such opcode.
+     * <p>
+     * Unlike indexing into {@link PacketOpcode#values()}, this does not allocate.
+     */
+    public static @Nullable PacketOpcode opcode(final int opcodeValue) {
+        if (opcodeValue < 0 || opcodeValue >= OPCODES.length) {
+            return null;
+        }
+
+        return OPCODES[opcodeValue];
+    }
+
+    /**
+     * Registers a custom decoder for the payload of the provided opcode, replacing any existing decoder for it.
+     * <p>
+     * Registering a decoder for {@link PacketOpcode#FRAME} replaces the codec's {@link LazyFrameDecoder}, which means
+     * that the registered commands and events are no longer used.
+     */
+    public PacketRegistry registerDecoder(final PacketOpcode opcode, final Decoder decoder) {
+        this.decoders[opcode.ordinal()] = decoder;
+        return this;
+    }
+
+    /**
+     * Registers a packet class that the payload of the provided opcode should be deserialized as.
+     *
+     * @see #registerDecoder(PacketOpcode, Decoder)
+     */
+    public PacketRegistry registerDecoder(final PacketOpcode opcode, final Class<? extends Packet> packetClass) {
+        final ObjectReader reader = PacketCodec.JSON_MAPPER.readerFor(packetClass);
+        return this.registerDecoder(opcode, payloadBuffer -> PacketCodec.readPayload(reader, payloadBuffer));
+    }
+
+    /**
+     * Registers a type of frame packet which can be received from the Discord client, whose data is deserialized as the
+     * provided class.
+     *
+     * @param command  The command of the frame packet (e.g. {@code SET_ACTIVITY}).
+     * @param dataType The class to deserialize the packet's data as.
+     * @param factory  The function used to create the packet.
+     */
+    public <D> PacketRegistry registerCommand(final String command, final Class<D> dataType, final FramePacketFactory<D> factory) {
+        final ObjectReader reader = PacketCodec.JSON_MAPPER.readerFor(dataType);
+        return this.registerCommand(command, reader::readValue, factory);
+    }
+
+    /**
+     * Registers a type of frame packet which can be received from the Discord client, whose data is deserialized with a
+     * custom binder.
+     *
+     * @param command The command of the frame packet (e.g. {@code SET_ACTIVITY}).
+     * @param binder  The function used to deserialize the packet's data.
+     * @param factory The function used to create the packet.
+     */
+    public <D> PacketRegistry registerCommand(
+        final String command,
+        final LazyFrameData.Binder<? extends D> binder,
+        final FramePacketFactory<D> factory
+    ) {
+        if (command.equals("DISPATCH")) {
+            throw new IllegalArgumentException("DISPATCH packets can not be replaced, register an event instead");
+        }
+
+        this.commandTypes.put(command, new CommandType<>(binder, factory));
+        return this;
+    }
+
+    /**
+     * Registers a type of event which can be dispatched by the Discord client.
+     *
+     * @param eventName The name of the event (e.g. {@code READY}).
+     * @param eventType The class to deserialize the event's data as.
+     */
+    public PacketRegistry registerEvent(final String eventName, final Class<? extends Event> eventType) {
+        final ObjectReader reader = PacketCodec.JSON_MAPPER.readerFor(eventType);
+        return this.registerEvent(eventName, eventType, reader::readValue);
+    }
+
+    /**
+     * Registers a type of event which can be dispatched by the Discord client, whose data is deserialized with a custom
+     * binder (for example, a hand-written parser for an event which is received often).
+     *
+     * @param eventName The name of the event (e.g. {@code READY}).
+     * @param eventType The class of the event, this is what event listeners subscribe to.
+     * @param binder    The function used to deserialize the event's data.
+     */
+    public <E extends Event> PacketRegistry registerEvent(
+        final String eventName,
+        final Class<E> eventType,
+        final LazyFrameData.Binder<? extends E> binder
+    ) {
+        this.eventTypes.put(eventName, new EventType(eventType, binder));
+        return this;
+    }
+
+    /**
+     * Returns the decoder for the payload of the provided opcode, or null if one has not been registered.
+     */
+    @Nullable Decoder decoder(final PacketOpcode opcode) {
+        return this.decoders[opcode.ordinal()];
+    }
+
+    /**
+     * Returns the type of frame packet with the provided command, or null if one has not been registered.
+     */
+    @Nullable CommandType<?> commandType(final String command) {
+        return this.commandTypes.get(command);
+    }
+
+    /**
+     * Returns the type of event with the provided name, or null if one has not been registered.
+     */
+    @Nullable EventType eventType(final String eventName) {
+        return this.eventTypes.get(eventName);
+    }
+
+    /**
+     * A registered type of frame packet.
+     */
+    static class CommandType<D> {
+        final LazyFrameData.Binder<? extends D> binder;
+        final FramePacketFactory<D> factory;
+
+        CommandType(final LazyFrameData.Binder<? extends D> binder, final FramePacketFactory<D> factory) {
+            this.binder = binder;
+            this.factory = factory;
+        }
+    }
+
+    /**
+     * A registered type of event.
+     */
+    static class EventType {
+        final Class<? extends Event> type;
+        final LazyFrameData.Binder<? extends Event> binder;
+
+        EventType(final Class<? extends Event> type, final LazyFrameData.Binder<? extends Event> binder) {
+            this.type = type;
+            this.binder = binder;
+        }
+    }
+
+    /**
+     * The type of the function called to decode the payload of a packet.
+     */
+    public interface Decoder {
+        /**
+         * Decodes the payload of a packet.
+         *
+         * @param payloadBuffer The buffer containing the packet's payload between its position and limit. This must not
+         *                      be referred to once this method returns, as it is reused for other packets.
+         * @return The decoded packet, or null if the packet should be dropped.
+         */
+        @Nullable Packet decode(final ByteBuffer payloadBuffer) throws IOException;
+    }
+
+    /**
+     * The type of the function called to create a frame packet once its {@code cmd} and {@code nonce} fields have been
+     * read.
+     */
+    public interface FramePacketFactory<D> {
+        /**
+         * Creates a frame packet.
+         *
+         * @param uniqueId The unique ID of the packet.
+         * @param data     The data of the packet, which may not have been deserialized yet.
+         */
+        IncomingFramePacket<?> create(final @Nullable String uniqueId, final LazyFrameData<D> data);
+    }
+}
@@ -0,0 +1,143 @@
+package dev.caoimhe.jdiscordipc.packet.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link PacketCodec.ReadFunction} which reads ahead of what the {@link PacketCodec} asks for.
+ * <p>
+ * Each read from the underlying data source fills a large buffer with whatever bytes are currently available, instead
+ * of only the bytes for the next header or payload. When the Discord client sends a burst of packets, a single read can
+ * return many of them, and the following calls to {@link #readFully(ByteBuffer)} are served from memory.
+ * <p>
+ * Reads which are larger than the buffer itself skip it and go straight into the destination buffer, once everything
+ * that was already buffered has been handed out.
+ * <p>
+ * This class is not thread-safe, it is expected to only be used by the packet reading thread.
+ */
+public class ReadAheadBuffer implements PacketCodec.ReadFunction {
+    /**
+     * The default capacity of the read-ahead buffer.
+     */
+    public static final int DEFAULT_CAPACITY_BYTES = 64 * 1024;
+
+    /**
+     * The function to call when more bytes should be read from the underlying data source.
+     */
+    private final FillFunction fillFunction;
+
+    /**
+     * The bytes that have been read from the data source, but not handed out yet, are between its position and limit.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The number of times that {@link #fillFunction} has been called.
+     */
+    private long fillCount;
+
+    /**
+     * Initializes a new {@link ReadAheadBuffer} with a capacity of {@link #DEFAULT_CAPACITY_BYTES}.
+     *
+     * @param fillFunction The function to call when more bytes should be read from the underlying data source.
+     * @param direct       Whether the read-ahead buffer should be a direct buffer.
+     */
+    public ReadAheadBuffer(final FillFunction fillFunction, final boolean direct) {
+        this(fillFunction, direct, DEFAULT_CAPACITY_BYTES);
+    }
+
+    /**
+     * Initializes a new {@link ReadAheadBuffer}.
+     *
+     * @param fillFunction  The function to call when more bytes should be read from the underlying data source.
+     * @param direct        Whether the read-ahead buffer should be a direct buffer.
+     * @param capacityBytes The capacity of the read-ahead buffer.
+     */
+    public ReadAheadBuffer(final FillFunction fillFunction, final boolean direct, final int capacityBytes) {
+        this.fillFunction = fillFunction;
+        this.buffer = direct ? ByteBuffer.allocateDirect(capacityBytes) : ByteBuffer.allocate(capacityBytes);
+        this.fillCount = 0;
+
+        // The buffer starts out empty.
+        this.buffer.flip();
+    }
+
+    @Override
+    public boolean readFully(final ByteBuffer byteBuffer) throws IOException {
+        final int position = byteBuffer.position();
+
+        while (byteBuffer.hasRemaining()) {
+            // If there's anything left over from the last read, it can be handed out first.
+            if (this.buffer.hasRemaining()) {
+                this.transferTo(byteBuffer);
+                continue;
+            }
+
+            // Reading into our own buffer first would only mean copying it again, and we'd still need more reads.
+            final int read;
+            if (byteBuffer.remaining() >= this.buffer.capacity()) {
+                read = this.fillFunction.read(byteBuffer);
+            } else {
+                this.buffer.clear();
+                read = this.fillFunction.read(this.buffer);
+                this.buffer.flip();
+            }
+
+            this.fillCount++;
+            if (read == -1) {
+                return false;
+            }
+        }
+
+        byteBuffer.position(position);
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        // Anything left over belongs to the old data source, the buffer is empty again.
+        this.buffer.clear();
+        this.buffer.flip();
+    }
+
+    /**
+     * The number of bytes which have been read from the data source, but not handed out yet.
+     */
+    public int bufferedBytes() {
+        return this.buffer.remaining();
+    }
+
+    /**
+     * The number of times that the underlying data source has been read from.
+     */
+    public long fillCount() {
+        return this.fillCount;
+    }
+
+    /**
+     * Copies as many buffered bytes as possible into the destination buffer.
+     */
+    private void transferTo(final ByteBuffer destination) {
+        final int length = Math.min(this.buffer.remaining(), destination.remaining());
+
+        final ByteBuffer slice = this.buffer.slice();
+        slice.limit(length);
+        destination.put(slice);
+
+        this.buffer.position(this.buffer.position() + length);
+    }
+
+    /**
+     * The type of the function called when more bytes should be read from the underlying data source.
+     */
+    public interface FillFunction {
+        /**
+         * Reads whatever bytes are currently available from the underlying data source into the provided buffer,
+         * starting at its position. This will block until at least one byte is available.
+         *
+         * @param byteBuffer The buffer to read into. Its position is advanced by the number of bytes read.
+         * @return The number of bytes read, or -1 if the end of the stream was reached.
+         */
+        int read(final ByteBuffer byteBuffer) throws IOException;
+    }
+}
@@ -1,10 +1,12 @@
 package dev.caoimhe.jdiscordipc.packet.impl.frame;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import dev.caoimhe.jdiscordipc.packet.impl.FramePacket;
 import dev.caoimhe.jdiscordipc.packet.impl.frame.incoming.DispatchEventPacket;
 import dev.caoimhe.jdiscordipc.packet.impl.frame.incoming.SetActivityResponsePacket;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A frame packet being received from the Discord client.
@@ -15,8 +17,51 @@ import dev.caoimhe.jdiscordipc.packet.impl.frame.incoming.SetActivityResponsePac
     @JsonSubTypes.Type(value = SetActivityResponsePacket.class, name = "SET_ACTIVITY"),
 })
 public abstract class IncomingFramePacket<D> extends FramePacket {
+    /**
+     * The data of this packet if it has not been deserialized yet, see {@link LazyFrameData}. This is null if the packet
+     * was deserialized all at once.
+     */
+    @JsonIgnore
+    private final @Nullable LazyFrameData<? extends D> lazyData;
+
+    /**
+     * Initializes a new {@link IncomingFramePacket}, used when the packet is deserialized all at once.
+     */
+    protected IncomingFramePacket() {
+        this.lazyData = null;
+    }
+
+    /**
+     * Initializes a new {@link IncomingFramePacket} whose data is deserialized when it is first requested.
+     *
+     * @param command  The command for this frame packet.
+     * @param uniqueId The unique ID for this frame packet.
+     * @param lazyData The data of this packet, which has not been deserialized yet.
+     */
+    protected IncomingFramePacket(final String command, final @Nullable String uniqueId, final LazyFrameData<? extends D> lazyData) {
+        this.command = command;
+        this.uniqueId = uniqueId;
+        this.lazyData = lazyData;
+    }
+
     /**
      * Returns the data contained within this incoming frame packet.
      */
     public abstract D data();
+
+    /**
+     * Returns whether this packet's data has been deserialized yet.
+     */
+    public boolean isDataBound() {
+        return this.lazyData == null || this.lazyData.isBound();
+    }
+
+    /**
+     * Deserializes this packet's data if it was received lazily, see {@link LazyFrameData#get()}.
+     *
+     * @return The deserialized data, or null if this packet was not received lazily.
+     */
+    protected @Nullable D bindLazyData() {
+        return this.lazyData != null ? this.lazyData.get() : null;
+    }
 }
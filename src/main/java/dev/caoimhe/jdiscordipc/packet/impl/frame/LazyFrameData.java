@@ -0,0 +1,83 @@
+package dev.caoimhe.jdiscordipc.packet.impl.frame;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The data of an {@link IncomingFramePacket} which has been received, but has not been deserialized yet.
+ * <p>
+ * The raw JSON bytes of the data are kept until {@link #get()} is called for the first time, at which point they are
+ * bound to the data's model class and discarded. If nothing ever asks for the data, it is never deserialized.
+ *
+ * @param <D> The type of the data.
+ */
+public class LazyFrameData<D> {
+    /**
+     * The raw JSON bytes of the data, or null if the data has already been bound (or was a JSON null).
+     */
+    private byte @Nullable [] bytes;
+
+    /**
+     * The function used to bind {@link #bytes} to the data's model class.
+     */
+    private final Binder<? extends D> binder;
+
+    /**
+     * The bound data, only set once {@link #get()} has been called.
+     */
+    private @Nullable D value;
+
+    /**
+     * Initializes a new {@link LazyFrameData} instance.
+     *
+     * @param bytes  The raw JSON bytes of the data, or null if the data was a JSON null.
+     * @param binder The function used to bind the bytes to the data's model class.
+     */
+    public LazyFrameData(final byte @Nullable [] bytes, final Binder<? extends D> binder) {
+        this.bytes = bytes;
+        this.binder = binder;
+        this.value = null;
+    }
+
+    /**
+     * Returns the data, deserializing it if this is the first time it has been requested.
+     *
+     * @throws UncheckedIOException If the data could not be deserialized.
+     */
+    public synchronized @Nullable D get() {
+        final byte[] bytes = this.bytes;
+        if (bytes == null) {
+            return this.value;
+        }
+
+        try {
+            this.value = this.binder.bind(bytes);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to deserialize frame data", e);
+        }
+
+        this.bytes = null;
+        return this.value;
+    }
+
+    /**
+     * Returns whether the data has been deserialized yet.
+     */
+    public synchronized boolean isBound() {
+        return this.bytes == null;
+    }
+
+    /**
+     * The type of the function called to bind the raw JSON bytes of the data to its model class.
+     */
+    public interface Binder<D> {
+        /**
+         * Deserializes the raw JSON bytes of the data.
+         *
+         * @param bytes The raw JSON bytes of the data.
+         */
+        D bind(final byte[] bytes) throws IOException;
+    }
+}
@@ -7,8 +7,19 @@ import dev.caoimhe.jdiscordipc.event.model.Event;
 import dev.caoimhe.jdiscordipc.event.model.ReadyEvent;
 import dev.caoimhe.jdiscordipc.event.model.VoiceChannelSelectEvent;
 import dev.caoimhe.jdiscordipc.packet.impl.frame.IncomingFramePacket;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.LazyFrameData;
+import org.jspecify.annotations.Nullable;
 
+/**
+ * Received from the Discord client when an event is dispatched, see {@link Event}.
+ */
 public class DispatchEventPacket extends IncomingFramePacket<Event> {
+    /**
+     * The name of the event that was dispatched (e.g. {@code READY}).
+     */
+    @JsonProperty("evt")
+    protected String eventName;
+
     @JsonTypeInfo(
         use = JsonTypeInfo.Id.NAME,
         include = JsonTypeInfo.As.EXTERNAL_PROPERTY,
@@ -22,8 +33,38 @@ public class DispatchEventPacket extends IncomingFramePacket<Event> {
     @JsonProperty("data")
     protected Event data;
 
+    /**
+     * Initializes a new {@link DispatchEventPacket}, used when the packet is deserialized all at once.
+     */
+    protected DispatchEventPacket() {
+        super();
+    }
+
+    /**
+     * Initializes a new {@link DispatchEventPacket} whose event is deserialized when it is first requested.
+     *
+     * @param uniqueId  The unique ID for this frame packet.
+     * @param eventName The name of the event that was dispatched.
+     * @param lazyData  The event, which has not been deserialized yet.
+     */
+    public DispatchEventPacket(final @Nullable String uniqueId, final String eventName, final LazyFrameData<? extends Event> lazyData) {
+        super("DISPATCH", uniqueId, lazyData);
+        this.eventName = eventName;
+    }
+
+    /**
+     * The name of the event that was dispatched (e.g. {@code READY}).
+     */
+    public String eventName() {
+        return this.eventName;
+    }
+
     @Override
     public Event data() {
+        if (this.data == null) {
+            this.data = this.bindLazyData();
+        }
+
         return this.data;
     }
 
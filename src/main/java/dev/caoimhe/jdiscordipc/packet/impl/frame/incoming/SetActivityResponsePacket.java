@@ -3,6 +3,8 @@ package dev.caoimhe.jdiscordipc.packet.impl.frame.incoming;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import dev.caoimhe.jdiscordipc.activity.model.Activity;
 import dev.caoimhe.jdiscordipc.packet.impl.frame.IncomingFramePacket;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.LazyFrameData;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Received from the Discord client as a response to {@link dev.caoimhe.jdiscordipc.packet.impl.frame.outgoing.SetActivityRequestPacket}.
@@ -11,8 +13,29 @@ public class SetActivityResponsePacket extends IncomingFramePacket<Activity> {
     @JsonProperty("data")
     private Activity data;
 
+    /**
+     * Initializes a new {@link SetActivityResponsePacket}, used when the packet is deserialized all at once.
+     */
+    protected SetActivityResponsePacket() {
+        super();
+    }
+
+    /**
+     * Initializes a new {@link SetActivityResponsePacket} whose activity is deserialized when it is first requested.
+     *
+     * @param uniqueId The unique ID for this frame packet.
+     * @param lazyData The activity, which has not been deserialized yet.
+     */
+    public SetActivityResponsePacket(final @Nullable String uniqueId, final LazyFrameData<? extends Activity> lazyData) {
+        super("SET_ACTIVITY", uniqueId, lazyData);
+    }
+
     @Override
     public Activity data() {
+        if (this.data == null) {
+            this.data = this.bindLazyData();
+        }
+
         return this.data;
     }
 }
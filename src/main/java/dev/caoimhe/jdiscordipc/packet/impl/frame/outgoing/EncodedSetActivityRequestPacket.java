@@ -0,0 +1,79 @@
+package dev.caoimhe.jdiscordipc.packet.impl.frame.outgoing;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import dev.caoimhe.jdiscordipc.activity.model.Activity;
+import dev.caoimhe.jdiscordipc.internal.util.SystemUtil;
+import dev.caoimhe.jdiscordipc.packet.PreEncodedPacket;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link SetActivityRequestPacket} whose activity has already been serialized.
+ * <p>
+ * Only the unique ID is encoded when the packet is written, it is spliced in with the activity's bytes and the process
+ * ID, which is encoded once for the current process. The payload is the same as the one that Jackson would produce for a {@link SetActivityRequestPacket}.
+ *
+ * @see dev.caoimhe.jdiscordipc.activity.ActivityPayloadCache
+ */
+public class EncodedSetActivityRequestPacket extends SetActivityRequestPacket implements PreEncodedPacket {
+    private static final byte[] COMMAND = bytes("{\"cmd\":\"SET_ACTIVITY\"");
+    private static final byte[] UNIQUE_ID_START = bytes(",\"nonce\":\"");
+    private static final byte[] UNIQUE_ID_END = bytes("\"");
+    private static final byte[] PROCESS_ID = bytes(",\"args\":{\"pid\":");
+    private static final byte[] ACTIVITY = bytes(",\"activity\":");
+    private static final byte[] END = bytes("}}");
+
+    /**
+     * The ID of the current process, which is the one sent with every activity update, encoded as JSON.
+     */
+    private static final byte[] CURRENT_PROCESS_ID = bytes(Long.toString(SystemUtil.getProcessId()));
+
+    /**
+     * The process ID encoded as JSON.
+     */
+    @JsonIgnore
+    private final byte[] encodedProcessId;
+
+    /**
+     * The activity serialized as JSON, see {@link dev.caoimhe.jdiscordipc.packet.codec.PacketCodec#serialize(Object)}.
+     */
+    @JsonIgnore
+    private final byte[] encodedActivity;
+
+    /**
+     * Initializes a new {@link EncodedSetActivityRequestPacket}.
+     *
+     * @param processId       The current process ID.
+     * @param activity        The activity to set on the user.
+     * @param encodedActivity The activity serialized as JSON. This is not copied, and must not be modified.
+     */
+    public EncodedSetActivityRequestPacket(final long processId, final Activity activity, final byte[] encodedActivity) {
+        super(new Arguments(processId, activity));
+        this.encodedProcessId = processId == SystemUtil.getProcessId() ? CURRENT_PROCESS_ID : bytes(Long.toString(processId));
+        this.encodedActivity = encodedActivity;
+    }
+
+    @Override
+    public void writePayload(final OutputStream outputStream) throws IOException {
+        outputStream.write(COMMAND);
+
+        if (this.uniqueId != null) {
+            outputStream.write(UNIQUE_ID_START);
+            outputStream.write(JsonStringEncoder.getInstance().quoteAsUTF8(this.uniqueId));
+            outputStream.write(UNIQUE_ID_END);
+        }
+
+        outputStream.write(PROCESS_ID);
+        outputStream.write(this.encodedProcessId);
+        outputStream.write(ACTIVITY);
+        outputStream.write(this.encodedActivity);
+        outputStream.write(END);
+    }
+
+    private static byte[] bytes(final String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+}
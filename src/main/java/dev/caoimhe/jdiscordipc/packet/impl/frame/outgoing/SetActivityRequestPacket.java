@@ -19,6 +19,14 @@ public class SetActivityRequestPacket extends OutgoingFramePacket<SetActivityReq
         super("SET_ACTIVITY", arguments);
     }
 
+    /**
+     * Only the latest activity matters, so a queued {@link SetActivityRequestPacket} can be replaced by a newer one.
+     */
+    @Override
+    public Object replacementKey() {
+        return this.command;
+    }
+
     public static class Arguments {
         /**
          * The current process ID, used by Discord to know when to stop showing the activity.
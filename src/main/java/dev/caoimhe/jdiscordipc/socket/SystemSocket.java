@@ -21,8 +21,12 @@ public interface SystemSocket {
     /**
      * Attempts to read bytes from the socket into the provided {@link ByteBuffer}.
      * <p></p>
-     * If there is not enough bytes available to read into the buffer, this will block until the bytes become available.
-     * The {@link ByteBuffer} must be array-backed for this operation to succeed.
+     * Bytes are read into the buffer between its position and its limit. If there is not enough bytes available to read
+     * into the buffer, this will block until the bytes become available. Once the bytes have been read, the buffer's
+     * position is restored to where it was before reading.
+     * <p></p>
+     * Unless {@link #supportsDirectBuffers()} returns true, the {@link ByteBuffer} must be array-backed for this
+     * operation to succeed.
      *
      * @param byteBuffer The byte buffer to read into.
      * @return Whether the operation was successful, if `false`, it's likely that the socket was closed.
@@ -30,14 +34,98 @@ public interface SystemSocket {
     boolean readFully(final ByteBuffer byteBuffer) throws IOException;
 
     /**
-     * Writes a {@link ByteBuffer} to the socket.
+     * Reads whatever bytes are currently available from the socket into the provided {@link ByteBuffer}, without
+     * waiting for the buffer to be filled.
+     * <p></p>
+     * Bytes are read into the buffer starting at its position, and its position is advanced by the number of bytes that
+     * were read. This will block until at least one byte is available.
+     * <p></p>
+     * Unless {@link #supportsDirectBuffers()} returns true, the {@link ByteBuffer} must be array-backed for this
+     * operation to succeed.
+     *
+     * <p></p>
+     * The default implementation reads a single byte with {@link #readFully(ByteBuffer)}, as only the next byte is
+     * certain to arrive. Implementations which can return every available byte should override this, along with
+     * {@link #supportsPartialReads()}.
+     *
+     * @param byteBuffer The byte buffer to read into.
+     * @return The number of bytes read, or -1 if the socket is not connected or the end of the stream was reached.
+     */
+    default int read(final ByteBuffer byteBuffer) throws IOException {
+        if (!byteBuffer.hasRemaining()) {
+            return 0;
+        }
+
+        final ByteBuffer slice = byteBuffer.duplicate();
+        slice.limit(slice.position() + 1);
+        if (!this.readFully(slice)) {
+            return -1;
+        }
+
+        byteBuffer.position(byteBuffer.position() + 1);
+        return 1;
+    }
+
+    /**
+     * Writes the remaining bytes (between the position and the limit) of a {@link ByteBuffer} to the socket.
      *
      * @param byteBuffer The byte buffer to write.
      */
     void write(final ByteBuffer byteBuffer) throws IOException;
 
+    /**
+     * Writes the remaining bytes (between the position and the limit) of multiple {@link ByteBuffer}s to the socket, in
+     * order.
+     * <p>
+     * Implementations should write all buffers with as few system calls as possible, this allows callers to write a
+     * packet's header and payload (or multiple packets) without concatenating them first.
+     *
+     * <p>
+     * The default implementation writes each buffer with {@link #write(ByteBuffer)}.
+     *
+     * @param byteBuffers The byte buffers to write.
+     */
+    default void write(final ByteBuffer... byteBuffers) throws IOException {
+        for (final ByteBuffer byteBuffer : byteBuffers) {
+            this.write(byteBuffer);
+        }
+    }
+
+    /**
+     * Returns whether this {@link SystemSocket} can read into and write from direct {@link ByteBuffer}s.
+     * <p>
+     * Implementations which access {@link ByteBuffer#array()} must return false.
+     */
+    default boolean supportsDirectBuffers() {
+        return false;
+    }
+
+    /**
+     * Returns whether {@link #read(ByteBuffer)} returns every byte which is currently available, instead of a single
+     * byte at a time.
+     * <p>
+     * If this returns false, incoming packets are read with {@link #readFully(ByteBuffer)} instead of being read ahead
+     * (see {@link dev.caoimhe.jdiscordipc.packet.codec.ReadAheadBuffer}).
+     */
+    default boolean supportsPartialReads() {
+        return false;
+    }
+
     /**
      * Returns whether this {@link SystemSocket} instance is connected to the socket.
      */
     boolean isConnected();
+
+    /**
+     * Closes the connection to the socket, if there is one. Any thread blocked reading from the socket should be woken
+     * up, with the read failing or reporting the end of the stream.
+     * <p>
+     * {@link #connect(Path)} may be called again after this, which is how JDiscordIPC reconnects to the Discord client
+     * (see {@link dev.caoimhe.jdiscordipc.ReconnectPolicy}). The default implementation does nothing, implementations
+     * which can only connect once will not be able to reconnect.
+     *
+     * @throws IOException If an error occurs while closing the socket.
+     */
+    default void close() throws IOException {
+    }
 }
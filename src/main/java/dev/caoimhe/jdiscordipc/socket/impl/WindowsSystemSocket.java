@@ -11,15 +11,25 @@ import java.nio.file.Path;
 
 /**
  * A {@link SystemSocket} implementation that communicates with the Discord client over a {@link RandomAccessFile}.
+ * <p>
+ * Reads go through the file's {@link FileChannel}, but writes must not: the channel's reads and writes share a lock,
+ * which the packet reading thread holds while it waits for the Discord client. Writes go through the
+ * {@link RandomAccessFile} itself instead, from a heap array.
  */
 public class WindowsSystemSocket implements SystemSocket {
     private @Nullable RandomAccessFile randomAccessFile;
 
+    /**
+     * Direct and gathered buffers are copied into this before being written. This is guarded by the lock on this socket.
+     */
+    private byte[] writeBuffer;
+
     /**
      * Initializes a new {@link WindowsSystemSocket}.
      */
     public WindowsSystemSocket() {
         this.randomAccessFile = null;
+        this.writeBuffer = new byte[0];
     }
 
     @Override
@@ -33,6 +43,7 @@ public class WindowsSystemSocket implements SystemSocket {
             return false;
         }
 
+        final int position = byteBuffer.position();
         final FileChannel channel = this.randomAccessFile.getChannel();
         while (byteBuffer.hasRemaining()) {
             if (channel.read(byteBuffer) == -1) {
@@ -40,21 +51,92 @@ public class WindowsSystemSocket implements SystemSocket {
             }
         }
 
-        byteBuffer.position(0);
+        byteBuffer.position(position);
         return true;
     }
 
     @Override
-    public void write(final ByteBuffer byteBuffer) throws IOException {
+    public int read(final ByteBuffer byteBuffer) throws IOException {
         if (this.randomAccessFile == null) {
+            return -1;
+        }
+
+        return this.randomAccessFile.getChannel().read(byteBuffer);
+    }
+
+    @Override
+    public void write(final ByteBuffer byteBuffer) throws IOException {
+        this.write(new ByteBuffer[]{byteBuffer});
+    }
+
+    @Override
+    public void write(final ByteBuffer... byteBuffers) throws IOException {
+        final RandomAccessFile randomAccessFile = this.randomAccessFile;
+        if (randomAccessFile == null) {
+            return;
+        }
+
+        if (byteBuffers.length == 1 && byteBuffers[0].hasArray()) {
+            this.writeArray(byteBuffers[0]);
+            return;
+        }
+
+        int length = 0;
+        for (final ByteBuffer byteBuffer : byteBuffers) {
+            length += byteBuffer.remaining();
+        }
+
+        // The buffers are copied into one array, so that the frame is still written with a single write.
+        synchronized (this) {
+            if (this.writeBuffer.length < length) {
+                this.writeBuffer = new byte[Math.max(length, this.writeBuffer.length * 2)];
+            }
+
+            int offset = 0;
+            for (final ByteBuffer byteBuffer : byteBuffers) {
+                final int remaining = byteBuffer.remaining();
+                byteBuffer.get(this.writeBuffer, offset, remaining);
+                offset += remaining;
+            }
+
+            randomAccessFile.write(this.writeBuffer, 0, length);
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of an array-backed buffer, advancing its position.
+     */
+    private void writeArray(final ByteBuffer byteBuffer) throws IOException {
+        final RandomAccessFile randomAccessFile = this.randomAccessFile;
+        if (randomAccessFile == null) {
             return;
         }
 
-        this.randomAccessFile.write(byteBuffer.array());
+        randomAccessFile.write(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), byteBuffer.remaining());
+        byteBuffer.position(byteBuffer.limit());
+    }
+
+    @Override
+    public boolean supportsDirectBuffers() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsPartialReads() {
+        return true;
     }
 
     @Override
     public boolean isConnected() {
         return this.randomAccessFile != null;
     }
+
+    @Override
+    public void close() throws IOException {
+        final RandomAccessFile randomAccessFile = this.randomAccessFile;
+        if (randomAccessFile != null) {
+            this.randomAccessFile = null;
+            randomAccessFile.close();
+        }
+    }
 }
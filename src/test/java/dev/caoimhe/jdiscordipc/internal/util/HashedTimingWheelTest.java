@@ -0,0 +1,152 @@
+package dev.caoimhe.jdiscordipc.internal.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a {@link HashedTimingWheel} manually with a fake clock, so that exactly when each task runs can be checked.
+ */
+class HashedTimingWheelTest {
+    private static final long TICK_NANOS = 100;
+
+    private long nowNanos;
+
+    @Test
+    void runsOnFirstTickAtOrAfterDeadline() {
+        final HashedTimingWheel wheel = this.createWheel(8);
+        final AtomicInteger runs = new AtomicInteger();
+        wheel.schedule(runs::incrementAndGet, 150, TimeUnit.NANOSECONDS);
+
+        // The deadline falls between two ticks, so it is rounded up to the second.
+        this.advanceTo(wheel, 100);
+        this.advanceTo(wheel, 199);
+        assertEquals(0, runs.get());
+
+        this.advanceTo(wheel, 200);
+        assertEquals(1, runs.get());
+        assertEquals(0, wheel.pendingCount());
+    }
+
+    @Test
+    void deadlineOnTickIsNotRoundedUp() {
+        final HashedTimingWheel wheel = this.createWheel(8);
+        final AtomicInteger runs = new AtomicInteger();
+        wheel.schedule(runs::incrementAndGet, 200, TimeUnit.NANOSECONDS);
+
+        this.advanceTo(wheel, 199);
+        assertEquals(0, runs.get());
+
+        this.advanceTo(wheel, 200);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void zeroDelayRunsOnCurrentTick() {
+        final HashedTimingWheel wheel = this.createWheel(8);
+        final AtomicInteger runs = new AtomicInteger();
+        wheel.schedule(runs::incrementAndGet, 0, TimeUnit.NANOSECONDS);
+
+        assertEquals(1, wheel.expireDueTicks());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void delayLongerThanOneTurnWaitsForRemainingRounds() {
+        final HashedTimingWheel wheel = this.createWheel(4);
+        final AtomicInteger longRuns = new AtomicInteger();
+        final AtomicInteger shortRuns = new AtomicInteger();
+
+        // Both tasks land in the same bucket, but the first is two and a half turns away.
+        wheel.schedule(longRuns::incrementAndGet, 10 * TICK_NANOS, TimeUnit.NANOSECONDS);
+        wheel.schedule(shortRuns::incrementAndGet, 2 * TICK_NANOS, TimeUnit.NANOSECONDS);
+
+        for (long tick = 1; tick < 10; tick++) {
+            this.advanceTo(wheel, tick * TICK_NANOS);
+            assertEquals(0, longRuns.get(), "ran at tick " + tick);
+            assertEquals(tick >= 2 ? 1 : 0, shortRuns.get(), "at tick " + tick);
+        }
+
+        this.advanceTo(wheel, 10 * TICK_NANOS);
+        assertEquals(1, longRuns.get());
+        assertEquals(0, wheel.pendingCount());
+    }
+
+    @Test
+    void scheduleAfterIdleCountsFromCurrentTime() {
+        final HashedTimingWheel wheel = this.createWheel(4);
+        final AtomicInteger runs = new AtomicInteger();
+
+        // Many turns pass without anything pending, the wheel must not treat the task as already overdue.
+        this.nowNanos = 5000;
+        wheel.schedule(runs::incrementAndGet, 100, TimeUnit.NANOSECONDS);
+
+        this.advanceTo(wheel, 5099);
+        assertEquals(0, runs.get());
+
+        this.advanceTo(wheel, 5100);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void cancelledTaskDoesNotRun() {
+        final HashedTimingWheel wheel = this.createWheel(8);
+        final AtomicInteger runs = new AtomicInteger();
+        final HashedTimingWheel.Timeout timeout = wheel.schedule(runs::incrementAndGet, 100, TimeUnit.NANOSECONDS);
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertEquals(0, wheel.pendingCount());
+
+        this.advanceTo(wheel, 100);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void cancelAfterExpiryHasNoEffect() {
+        final HashedTimingWheel wheel = this.createWheel(8);
+        final AtomicInteger runs = new AtomicInteger();
+        final HashedTimingWheel.Timeout timeout = wheel.schedule(runs::incrementAndGet, 100, TimeUnit.NANOSECONDS);
+        final HashedTimingWheel.Timeout other = wheel.schedule(runs::incrementAndGet, 500, TimeUnit.NANOSECONDS);
+
+        this.advanceTo(wheel, 100);
+        assertEquals(1, runs.get());
+
+        // The expired timeout is no longer in its bucket, cancelling it must not unlink anything else.
+        assertFalse(timeout.cancel());
+        assertEquals(1, wheel.pendingCount());
+
+        this.advanceTo(wheel, 500);
+        assertEquals(2, runs.get());
+        assertFalse(other.cancel());
+        assertEquals(0, wheel.pendingCount());
+    }
+
+    @Test
+    void taskCanScheduleAnotherTask() {
+        final HashedTimingWheel wheel = this.createWheel(8);
+        final AtomicInteger runs = new AtomicInteger();
+        wheel.schedule(() -> wheel.schedule(runs::incrementAndGet, 100, TimeUnit.NANOSECONDS), 100, TimeUnit.NANOSECONDS);
+
+        this.advanceTo(wheel, 100);
+        assertEquals(0, runs.get());
+        assertEquals(1, wheel.pendingCount());
+
+        this.advanceTo(wheel, 200);
+        assertEquals(1, runs.get());
+    }
+
+    private HashedTimingWheel createWheel(final int bucketCount) {
+        return new HashedTimingWheel(TICK_NANOS, TimeUnit.NANOSECONDS, bucketCount, () -> this.nowNanos);
+    }
+
+    private void advanceTo(final HashedTimingWheel wheel, final long nowNanos) {
+        this.nowNanos = nowNanos;
+        wheel.expireDueTicks();
+    }
+}
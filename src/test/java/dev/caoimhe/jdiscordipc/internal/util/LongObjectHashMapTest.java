@@ -0,0 +1,171 @@
+package dev.caoimhe.jdiscordipc.internal.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongObjectHashMapTest {
+    /**
+     * The capacity of a map which was created to hold a single entry.
+     */
+    private static final int MINIMUM_CAPACITY = 8;
+
+    @Test
+    void putThenGet() {
+        final LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+
+        assertNull(map.put(1, "one"));
+        assertNull(map.put(-1, "minus one"));
+        assertNull(map.put(Long.MAX_VALUE, "max"));
+
+        assertEquals("one", map.get(1));
+        assertEquals("minus one", map.get(-1));
+        assertEquals("max", map.get(Long.MAX_VALUE));
+        assertNull(map.get(2));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void putReplacesExistingValue() {
+        final LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+        map.put(1, "one");
+
+        assertEquals("one", map.put(1, "uno"));
+        assertEquals("uno", map.get(1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void putRejectsNullValue() {
+        final LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void removeReturnsRemovedValue() {
+        final LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+        map.put(1, "one");
+        map.put(2, "two");
+
+        assertEquals("one", map.remove(1));
+        assertNull(map.remove(1));
+        assertNull(map.get(1));
+        assertEquals("two", map.get(2));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void removeKeepsCollidingKeysReachable() {
+        final LongObjectHashMap<String> map = new LongObjectHashMap<>(1);
+        final long[] keys = keysWithSlot(2, 3);
+
+        for (final long key : keys) {
+            map.put(key, Long.toString(key));
+        }
+
+        // The first key sits in the colliding keys' ideal slot, so removing it leaves a gap before them.
+        assertEquals(Long.toString(keys[0]), map.remove(keys[0]));
+        assertEquals(Long.toString(keys[1]), map.get(keys[1]));
+        assertEquals(Long.toString(keys[2]), map.get(keys[2]));
+
+        assertEquals(Long.toString(keys[1]), map.remove(keys[1]));
+        assertEquals(Long.toString(keys[2]), map.get(keys[2]));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void removeKeepsKeysReachableWhenProbingWrapsAround() {
+        final LongObjectHashMap<String> map = new LongObjectHashMap<>(1);
+        final long[] lastSlotKeys = keysWithSlot(MINIMUM_CAPACITY - 1, 2);
+        final long firstSlotKey = keysWithSlot(0, 1)[0];
+
+        // The second key belongs in the last slot, but wraps around into the first, which pushes the key that belongs
+        // in the first slot into the second.
+        map.put(lastSlotKeys[0], "a");
+        map.put(lastSlotKeys[1], "b");
+        map.put(firstSlotKey, "c");
+
+        assertEquals("a", map.remove(lastSlotKeys[0]));
+        assertEquals("b", map.get(lastSlotKeys[1]));
+        assertEquals("c", map.get(firstSlotKey));
+
+        assertEquals("b", map.remove(lastSlotKeys[1]));
+        assertEquals("c", map.get(firstSlotKey));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void growsPastExpectedSize() {
+        final LongObjectHashMap<Long> map = new LongObjectHashMap<>(1);
+        for (long key = 0; key < 1000; key++) {
+            map.put(key, key * 2);
+        }
+
+        assertEquals(1000, map.size());
+        for (long key = 0; key < 1000; key++) {
+            assertEquals(Long.valueOf(key * 2), map.get(key));
+        }
+
+        for (long key = 0; key < 1000; key += 2) {
+            assertEquals(Long.valueOf(key * 2), map.remove(key));
+        }
+
+        assertEquals(500, map.size());
+        for (long key = 0; key < 1000; key++) {
+            assertEquals(key % 2 == 0 ? null : key * 2, map.get(key));
+        }
+    }
+
+    @Test
+    void forEachVisitsEveryEntry() {
+        final LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+        map.put(1, "one");
+        map.put(2, "two");
+        map.put(3, "three");
+        map.remove(2);
+
+        final Map<Long, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+
+        final Map<Long, String> expected = new HashMap<>();
+        expected.put(1L, "one");
+        expected.put(3L, "three");
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void clearRemovesEveryEntry() {
+        final LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+        map.put(1, "one");
+        map.put(2, "two");
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+        assertNull(map.put(1, "one"));
+        assertEquals("one", map.get(1));
+    }
+
+    /**
+     * Returns the first keys whose ideal slot is the provided slot in a map with {@link #MINIMUM_CAPACITY} slots.
+     */
+    private static long[] keysWithSlot(final int slot, final int count) {
+        final long[] keys = new long[count];
+        int found = 0;
+        for (long key = 0; found < count; key++) {
+            if ((LongObjectHashMap.hash(key) & (MINIMUM_CAPACITY - 1)) == slot) {
+                keys[found++] = key;
+            }
+        }
+
+        return keys;
+    }
+}
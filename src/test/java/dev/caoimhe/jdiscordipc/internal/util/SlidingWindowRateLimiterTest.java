@@ -0,0 +1,84 @@
+package dev.caoimhe.jdiscordipc.internal.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingWindowRateLimiterTest {
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(20);
+
+    @Test
+    void allowsLimitAtOnce() {
+        final SlidingWindowRateLimiter rateLimiter = new SlidingWindowRateLimiter(5, WINDOW_NANOS);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(0));
+        }
+
+        assertEquals(WINDOW_NANOS, rateLimiter.tryAcquire(0));
+    }
+
+    @Test
+    void waitsForOldestOperationToLeaveWindow() {
+        final SlidingWindowRateLimiter rateLimiter = new SlidingWindowRateLimiter(5, WINDOW_NANOS);
+        final long second = TimeUnit.SECONDS.toNanos(1);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(i * second));
+        }
+
+        // The first operation was at zero, so the next is allowed once it is a whole window old.
+        assertEquals(15 * second, rateLimiter.tryAcquire(5 * second));
+        assertEquals(1, rateLimiter.tryAcquire(WINDOW_NANOS - 1));
+        assertEquals(0, rateLimiter.tryAcquire(WINDOW_NANOS));
+
+        // Now the second operation is the oldest.
+        assertEquals(second, rateLimiter.tryAcquire(WINDOW_NANOS));
+    }
+
+    @Test
+    void neverExceedsLimitWithinAnyWindow() {
+        final SlidingWindowRateLimiter rateLimiter = new SlidingWindowRateLimiter(5, WINDOW_NANOS);
+        final long step = TimeUnit.MILLISECONDS.toNanos(250);
+
+        // An operation is attempted as often as possible, for several windows.
+        final List<Long> allowedAtNanos = new ArrayList<>();
+        for (long nowNanos = 0; nowNanos < 5 * WINDOW_NANOS; nowNanos += step) {
+            if (rateLimiter.tryAcquire(nowNanos) == 0) {
+                allowedAtNanos.add(nowNanos);
+            }
+        }
+
+        for (int i = 0; i + 5 < allowedAtNanos.size(); i++) {
+            assertTrue(allowedAtNanos.get(i + 5) - allowedAtNanos.get(i) >= WINDOW_NANOS, "6 operations within a window at " + allowedAtNanos.get(i));
+        }
+
+        // Anything less than 5 per window would be slower than necessary.
+        assertEquals(25, allowedAtNanos.size());
+    }
+
+    @Test
+    void idleTimeDoesNotAllowMoreThanLimit() {
+        final SlidingWindowRateLimiter rateLimiter = new SlidingWindowRateLimiter(2, WINDOW_NANOS);
+
+        assertEquals(0, rateLimiter.tryAcquire(0));
+
+        // However long the limiter was idle, only the limit can be used within the next window.
+        final long later = 10 * WINDOW_NANOS;
+        assertEquals(0, rateLimiter.tryAcquire(later));
+        assertEquals(0, rateLimiter.tryAcquire(later));
+        assertEquals(WINDOW_NANOS, rateLimiter.tryAcquire(later));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowRateLimiter(0, WINDOW_NANOS));
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowRateLimiter(5, 0));
+    }
+}
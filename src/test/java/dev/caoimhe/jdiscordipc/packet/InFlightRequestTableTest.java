@@ -0,0 +1,88 @@
+package dev.caoimhe.jdiscordipc.packet;
+
+import dev.caoimhe.jdiscordipc.exception.JDiscordIPCException;
+import dev.caoimhe.jdiscordipc.internal.util.HashedTimingWheel;
+import dev.caoimhe.jdiscordipc.packet.impl.frame.IncomingFramePacket;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InFlightRequestTableTest {
+    /**
+     * Long enough that no request expires while a test is running.
+     */
+    private static final Duration TIMEOUT = Duration.ofMinutes(10);
+
+    @Test
+    void evictsOldestRequestWhenFull() {
+        final HashedTimingWheel timingWheel = new HashedTimingWheel("InFlightRequestTableTest");
+        final InFlightRequestTable table = new InFlightRequestTable(2, timingWheel);
+
+        final CompletableFuture<IncomingFramePacket<?>> first = table.register(1, TIMEOUT);
+        final CompletableFuture<IncomingFramePacket<?>> second = table.register(2, TIMEOUT);
+        final CompletableFuture<IncomingFramePacket<?>> third = table.register(3, TIMEOUT);
+
+        assertInstanceOf(JDiscordIPCException.TooManyPendingRequestsException.class, failureOf(first));
+        assertFalse(second.isDone());
+        assertFalse(third.isDone());
+
+        assertEquals(2, table.size());
+        assertEquals(1, table.evictedCount());
+
+        // The evicted request's timeout is cancelled along with it.
+        assertEquals(2, timingWheel.pendingCount());
+    }
+
+    @Test
+    void evictsLowestIdRatherThanFirstRegistered() {
+        final InFlightRequestTable table = new InFlightRequestTable(2);
+
+        final CompletableFuture<IncomingFramePacket<?>> later = table.register(5, TIMEOUT);
+        final CompletableFuture<IncomingFramePacket<?>> lower = table.register(3, TIMEOUT);
+        table.register(7, TIMEOUT);
+
+        assertFalse(later.isDone());
+        assertInstanceOf(JDiscordIPCException.TooManyPendingRequestsException.class, failureOf(lower));
+    }
+
+    @Test
+    void completedRequestsDoNotCountTowardsCapacity() {
+        final InFlightRequestTable table = new InFlightRequestTable(2);
+
+        final CompletableFuture<IncomingFramePacket<?>> first = table.register(1, TIMEOUT);
+        final CompletableFuture<IncomingFramePacket<?>> second = table.register(2, TIMEOUT);
+        first.cancel(false);
+
+        table.register(3, TIMEOUT);
+
+        assertFalse(second.isDone());
+        assertEquals(2, table.size());
+        assertEquals(0, table.evictedCount());
+    }
+
+    @Test
+    void failAllFailsEveryRequest() {
+        final HashedTimingWheel timingWheel = new HashedTimingWheel("InFlightRequestTableTest");
+        final InFlightRequestTable table = new InFlightRequestTable(4, timingWheel);
+
+        final CompletableFuture<IncomingFramePacket<?>> first = table.register(1, TIMEOUT);
+        final CompletableFuture<IncomingFramePacket<?>> second = table.register(2, TIMEOUT);
+        table.failAll();
+
+        assertInstanceOf(JDiscordIPCException.ConnectionClosedException.class, failureOf(first));
+        assertInstanceOf(JDiscordIPCException.ConnectionClosedException.class, failureOf(second));
+        assertEquals(0, table.size());
+        assertEquals(0, timingWheel.pendingCount());
+    }
+
+    private static Throwable failureOf(final CompletableFuture<?> future) {
+        return assertThrows(ExecutionException.class, future::get).getCause();
+    }
+}
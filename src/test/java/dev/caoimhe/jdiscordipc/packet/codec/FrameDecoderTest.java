@@ -0,0 +1,159 @@
+package dev.caoimhe.jdiscordipc.packet.codec;
+
+import dev.caoimhe.jdiscordipc.packet.Packet;
+import dev.caoimhe.jdiscordipc.packet.PacketOpcode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.caoimhe.jdiscordipc.packet.codec.Frames.assertPing;
+import static dev.caoimhe.jdiscordipc.packet.codec.Frames.concat;
+import static dev.caoimhe.jdiscordipc.packet.codec.Frames.frame;
+import static dev.caoimhe.jdiscordipc.packet.codec.Frames.ping;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameDecoderTest {
+    @Test
+    void decodesFrameSplitAtEveryByteBoundary() throws IOException {
+        final byte[] frame = ping(1);
+
+        for (int split = 1; split < frame.length; split++) {
+            final FrameDecoder decoder = new FrameDecoder(Frames.decodingCodec());
+
+            assertEquals(0, decoder.feed(ByteBuffer.wrap(frame, 0, split)).size(), "split at " + split);
+
+            final List<Packet> packets = decoder.feed(ByteBuffer.wrap(frame, split, frame.length - split));
+            assertEquals(1, packets.size(), "split at " + split);
+            assertPing(1, packets.get(0));
+        }
+    }
+
+    @Test
+    void decodesFrameFedOneByteAtATime() throws IOException {
+        final FrameDecoder decoder = new FrameDecoder(Frames.decodingCodec());
+        final byte[] frames = concat(ping(1), ping(2));
+
+        final List<Packet> packets = new ArrayList<>();
+        for (int i = 0; i < frames.length; i++) {
+            decoder.feed(ByteBuffer.wrap(frames, i, 1), packets::add);
+        }
+
+        assertEquals(2, packets.size());
+        assertPing(1, packets.get(0));
+        assertPing(2, packets.get(1));
+    }
+
+    @Test
+    void decodesSeveralFramesInOneChunk() throws IOException {
+        final FrameDecoder decoder = new FrameDecoder(Frames.decodingCodec());
+        final ByteBuffer chunk = ByteBuffer.wrap(concat(ping(1), ping(2), ping(3)));
+
+        final List<Packet> packets = decoder.feed(chunk);
+
+        assertEquals(3, packets.size());
+        assertPing(1, packets.get(0));
+        assertPing(2, packets.get(1));
+        assertPing(3, packets.get(2));
+        assertEquals(0, chunk.remaining());
+    }
+
+    @Test
+    void keepsPartialFrameAtEndOfChunk() throws IOException {
+        final FrameDecoder decoder = new FrameDecoder(Frames.decodingCodec());
+        final byte[] bytes = concat(ping(1), ping(2), ping(3));
+        final int split = ping(1).length + ping(2).length + 3;
+
+        final List<Packet> first = decoder.feed(ByteBuffer.wrap(bytes, 0, split));
+        assertEquals(2, first.size());
+        assertPing(1, first.get(0));
+        assertPing(2, first.get(1));
+
+        final List<Packet> second = decoder.feed(ByteBuffer.wrap(bytes, split, bytes.length - split));
+        assertEquals(1, second.size());
+        assertPing(3, second.get(0));
+    }
+
+    @Test
+    void rejectsUnknownOpcode() throws IOException {
+        final byte[] frame = frame(PacketOpcode.values().length, 2, "{}");
+
+        final FrameDecoder decoder = new FrameDecoder(Frames.decodingCodec());
+        assertThrows(IOException.class, () -> decoder.feed(ByteBuffer.wrap(frame)));
+        assertRecoversAfterReset(decoder);
+
+        // The header may also be completed by a later chunk.
+        final FrameDecoder splitDecoder = new FrameDecoder(Frames.decodingCodec());
+        splitDecoder.feed(ByteBuffer.wrap(frame, 0, 3));
+        assertThrows(IOException.class, () -> splitDecoder.feed(ByteBuffer.wrap(frame, 3, frame.length - 3)));
+        assertRecoversAfterReset(splitDecoder);
+    }
+
+    @Test
+    void rejectsNegativeLength() throws IOException {
+        final byte[] frame = frame(PacketOpcode.PING.ordinal(), -1, "{}");
+
+        final FrameDecoder decoder = new FrameDecoder(Frames.decodingCodec());
+        assertThrows(IOException.class, () -> decoder.feed(ByteBuffer.wrap(frame)));
+        assertRecoversAfterReset(decoder);
+
+        final FrameDecoder splitDecoder = new FrameDecoder(Frames.decodingCodec());
+        splitDecoder.feed(ByteBuffer.wrap(frame, 0, 6));
+        assertThrows(IOException.class, () -> splitDecoder.feed(ByteBuffer.wrap(frame, 6, frame.length - 6)));
+        assertRecoversAfterReset(splitDecoder);
+    }
+
+    @Test
+    void continuesAfterMalformedPayload() throws IOException {
+        final byte[] malformed = frame(PacketOpcode.PING.ordinal(), 1, "{");
+        final FrameDecoder decoder = new FrameDecoder(Frames.decodingCodec());
+        final ByteBuffer chunk = ByteBuffer.wrap(concat(malformed, ping(1)));
+
+        // The malformed frame is consumed, and the chunk is left at the start of the next one.
+        assertThrows(IOException.class, () -> decoder.feed(chunk));
+        assertEquals(malformed.length, chunk.position());
+
+        final List<Packet> packets = decoder.feed(chunk);
+        assertEquals(1, packets.size());
+        assertPing(1, packets.get(0));
+    }
+
+    @Test
+    void continuesAfterMalformedPayloadSplitAcrossChunks() throws IOException {
+        final byte[] malformed = frame(PacketOpcode.PING.ordinal(), 1, "{");
+        final FrameDecoder decoder = new FrameDecoder(Frames.decodingCodec());
+
+        decoder.feed(ByteBuffer.wrap(malformed, 0, malformed.length - 1));
+        assertThrows(IOException.class, () -> decoder.feed(ByteBuffer.wrap(malformed, malformed.length - 1, 1)));
+
+        final List<Packet> packets = decoder.feed(ByteBuffer.wrap(ping(1)));
+        assertEquals(1, packets.size());
+        assertPing(1, packets.get(0));
+    }
+
+    @Test
+    void resetDiscardsPartialFrame() throws IOException {
+        final FrameDecoder decoder = new FrameDecoder(Frames.decodingCodec());
+        final byte[] frame = ping(1);
+        decoder.feed(ByteBuffer.wrap(frame, 0, frame.length - 1));
+
+        decoder.reset();
+        assertTrue(decoder.feed(ByteBuffer.allocate(0)).isEmpty());
+        assertRecoversAfterReset(decoder);
+    }
+
+    /**
+     * Asserts that the decoder can decode a frame once it has been reset.
+     */
+    private static void assertRecoversAfterReset(final FrameDecoder decoder) throws IOException {
+        decoder.reset();
+
+        final List<Packet> packets = decoder.feed(ByteBuffer.wrap(ping(2)));
+        assertEquals(1, packets.size());
+        assertPing(2, packets.get(0));
+    }
+}
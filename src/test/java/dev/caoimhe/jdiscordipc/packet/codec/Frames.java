@@ -0,0 +1,69 @@
+package dev.caoimhe.jdiscordipc.packet.codec;
+
+import dev.caoimhe.jdiscordipc.packet.Packet;
+import dev.caoimhe.jdiscordipc.packet.PacketOpcode;
+import dev.caoimhe.jdiscordipc.packet.impl.PingPacket;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Builds the bytes of frames as the Discord client would send them.
+ */
+final class Frames {
+    private Frames() {
+    }
+
+    /**
+     * Returns a frame with the provided header values and payload.
+     */
+    static byte[] frame(final int opcode, final int payloadLength, final String payload) {
+        final byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(PacketCodec.HEADER_SIZE_BYTES + payloadBytes.length)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(opcode)
+            .putInt(payloadLength)
+            .put(payloadBytes)
+            .array();
+    }
+
+    /**
+     * Returns a {@link PingPacket} frame whose properties contain the provided sequence number.
+     */
+    static byte[] ping(final int sequence) {
+        final String payload = "{\"sequence\":" + sequence + "}";
+        return frame(PacketOpcode.PING.ordinal(), payload.getBytes(StandardCharsets.UTF_8).length, payload);
+    }
+
+    /**
+     * Returns the provided frames one after another.
+     */
+    static byte[] concat(final byte[]... frames) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (final byte[] frame : frames) {
+            outputStream.write(frame, 0, frame.length);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Asserts that a packet is the {@link PingPacket} built by {@link #ping(int)} with the provided sequence number.
+     */
+    static void assertPing(final int sequence, final Packet packet) {
+        assertEquals(sequence, assertInstanceOf(PingPacket.class, packet).properties().get("sequence"));
+    }
+
+    /**
+     * Returns a codec which decodes packets, but can't read or write anything itself.
+     */
+    static PacketCodec decodingCodec() {
+        return new PacketCodec(byteBuffer -> false, byteBuffers -> {
+        });
+    }
+}
@@ -0,0 +1,157 @@
+package dev.caoimhe.jdiscordipc.packet.codec;
+
+import dev.caoimhe.jdiscordipc.packet.PacketOpcode;
+import dev.caoimhe.jdiscordipc.packet.impl.PingPacket;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static dev.caoimhe.jdiscordipc.packet.codec.Frames.assertPing;
+import static dev.caoimhe.jdiscordipc.packet.codec.Frames.concat;
+import static dev.caoimhe.jdiscordipc.packet.codec.Frames.frame;
+import static dev.caoimhe.jdiscordipc.packet.codec.Frames.ping;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadAheadBufferTest {
+    /**
+     * Smaller than a {@link Frames#ping(int)} frame, so that frames cross the end of the buffer.
+     */
+    private static final int CAPACITY_BYTES = 16;
+
+    @Test
+    void readsFramesCrossingBufferBoundary() throws IOException {
+        final ByteSource source = new ByteSource(concat(ping(1), ping(2), ping(3), ping(4)), Integer.MAX_VALUE);
+        final PacketCodec codec = createCodec(new ReadAheadBuffer(source, false, CAPACITY_BYTES));
+
+        for (int sequence = 1; sequence <= 4; sequence++) {
+            assertPing(sequence, codec.read());
+        }
+
+        assertNull(codec.read());
+    }
+
+    @Test
+    void readsFramesWhenEachFillReturnsFewBytes() throws IOException {
+        // Every header and payload needs several fills, some of which also contain the start of the next one.
+        final ByteSource source = new ByteSource(concat(ping(1), ping(2), ping(3)), 3);
+        final PacketCodec codec = createCodec(new ReadAheadBuffer(source, false, CAPACITY_BYTES));
+
+        for (int sequence = 1; sequence <= 3; sequence++) {
+            assertPing(sequence, codec.read());
+        }
+
+        assertNull(codec.read());
+    }
+
+    @Test
+    void readsPayloadLargerThanBufferStraightIntoDestination() throws IOException {
+        final char[] padding = new char[CAPACITY_BYTES * 4];
+        Arrays.fill(padding, 'a');
+        final String payload = "{\"padding\":\"" + new String(padding) + "\"}";
+        final byte[] bytes = concat(frame(PacketOpcode.PING.ordinal(), payload.length(), payload), ping(1));
+
+        final ReadAheadBuffer readAheadBuffer = new ReadAheadBuffer(new ByteSource(bytes, Integer.MAX_VALUE), false, CAPACITY_BYTES);
+        final PacketCodec codec = createCodec(readAheadBuffer);
+
+        final PingPacket packet = assertInstanceOf(PingPacket.class, codec.read());
+        assertEquals(new String(padding), packet.properties().get("padding"));
+
+        // One fill for the header and the start of the payload, and one for the rest of the payload.
+        assertEquals(2, readAheadBuffer.fillCount());
+        assertEquals(0, readAheadBuffer.bufferedBytes());
+
+        assertPing(1, codec.read());
+    }
+
+    @Test
+    void servesBufferedBytesWithoutFilling() throws IOException {
+        final ReadAheadBuffer readAheadBuffer = new ReadAheadBuffer(new ByteSource(new byte[]{1, 2, 3, 4, 5, 6}, Integer.MAX_VALUE), false, CAPACITY_BYTES);
+
+        final ByteBuffer first = ByteBuffer.allocate(2);
+        assertTrue(readAheadBuffer.readFully(first));
+        assertEquals(1, readAheadBuffer.fillCount());
+        assertEquals(4, readAheadBuffer.bufferedBytes());
+
+        final ByteBuffer second = ByteBuffer.allocate(4);
+        assertTrue(readAheadBuffer.readFully(second));
+        assertEquals(1, readAheadBuffer.fillCount());
+        assertArrayEquals(new byte[]{3, 4, 5, 6}, second.array());
+    }
+
+    @Test
+    void readFullyRestoresPosition() throws IOException {
+        final ReadAheadBuffer readAheadBuffer = new ReadAheadBuffer(new ByteSource(new byte[]{1, 2, 3}, 1), false, CAPACITY_BYTES);
+        final ByteBuffer destination = ByteBuffer.allocate(5);
+        destination.position(2);
+
+        assertTrue(readAheadBuffer.readFully(destination));
+        assertEquals(2, destination.position());
+        assertArrayEquals(new byte[]{0, 0, 1, 2, 3}, destination.array());
+    }
+
+    @Test
+    void returnsFalseWhenStreamEndsWithinFrame() throws IOException {
+        final byte[] frame = ping(1);
+        final ByteSource source = new ByteSource(Arrays.copyOf(frame, frame.length - 1), Integer.MAX_VALUE);
+        final PacketCodec codec = createCodec(new ReadAheadBuffer(source, false, CAPACITY_BYTES));
+
+        assertNull(codec.read());
+    }
+
+    @Test
+    void resetDiscardsBufferedBytes() throws IOException {
+        final byte[] bytes = concat(ping(1), ping(2));
+        final ReadAheadBuffer readAheadBuffer = new ReadAheadBuffer(new ByteSource(bytes, Integer.MAX_VALUE), false, CAPACITY_BYTES);
+
+        assertTrue(readAheadBuffer.readFully(ByteBuffer.allocate(4)));
+        assertEquals(CAPACITY_BYTES - 4, readAheadBuffer.bufferedBytes());
+
+        // The next read comes from the data source, not from what was left over.
+        readAheadBuffer.reset();
+        assertEquals(0, readAheadBuffer.bufferedBytes());
+
+        final ByteBuffer destination = ByteBuffer.allocate(4);
+        assertTrue(readAheadBuffer.readFully(destination));
+        assertArrayEquals(Arrays.copyOfRange(bytes, CAPACITY_BYTES, CAPACITY_BYTES + 4), destination.array());
+    }
+
+    private static PacketCodec createCodec(final ReadAheadBuffer readAheadBuffer) {
+        return new PacketCodec(readAheadBuffer, byteBuffers -> {
+        });
+    }
+
+    /**
+     * A data source which returns at most a fixed number of bytes per read, like a socket which only has some of the
+     * bytes available.
+     */
+    private static class ByteSource implements ReadAheadBuffer.FillFunction {
+        private final ByteBuffer bytes;
+        private final int maximumReadBytes;
+
+        private ByteSource(final byte[] bytes, final int maximumReadBytes) {
+            this.bytes = ByteBuffer.wrap(bytes);
+            this.maximumReadBytes = maximumReadBytes;
+        }
+
+        @Override
+        public int read(final ByteBuffer byteBuffer) {
+            if (!this.bytes.hasRemaining()) {
+                return -1;
+            }
+
+            final int length = Math.min(this.maximumReadBytes, Math.min(this.bytes.remaining(), byteBuffer.remaining()));
+            final ByteBuffer slice = this.bytes.slice();
+            slice.limit(length);
+            byteBuffer.put(slice);
+
+            this.bytes.position(this.bytes.position() + length);
+            return length;
+        }
+    }
+}